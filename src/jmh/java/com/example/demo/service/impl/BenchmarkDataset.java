@@ -0,0 +1,161 @@
+package com.example.demo.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.entity.Customer;
+import com.example.demo.entity.CustomerRentalSummary;
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+import com.example.demo.entity.RentalDetail;
+import com.example.demo.entity.RentalHeader;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+//boots the application against embedded H2 and seeds a dataset of configurable size
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+
+    private static final int GENRES = 10;
+    private static final int DETAILS_PER_RENTAL = 3;
+    private static final int FLUSH_EVERY = 500;
+
+    @Param("1000")
+    public int customers;
+
+    @Param("200")
+    public int movies;
+
+    @Param("5")
+    public int rentalsPerCustomer;
+
+    ConfigurableApplicationContext context;
+    RentalServiceImpl rentalService;
+    CustomerServiceImpl customerService;
+
+    final List<Long> customerIds = new ArrayList<>();
+    final List<Long> movieIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN")
+                .run();
+
+        //transactional proxies, so public methods run exactly as they do behind the controllers
+        rentalService = context.getBean(RentalServiceImpl.class);
+        customerService = context.getBean(CustomerServiceImpl.class);
+
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        transactionTemplate.executeWithoutResult(status -> seed(entityManagerFactory));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //package-private helpers are not proxied, call them on the target instance
+    RentalServiceImpl rentalServiceTarget() {
+        return AopTestUtils.getUltimateTargetObject(rentalService);
+    }
+
+    Long randomCustomerId() {
+        return customerIds.get(ThreadLocalRandom.current().nextInt(customerIds.size()));
+    }
+
+    Long randomMovieId() {
+        return movieIds.get(ThreadLocalRandom.current().nextInt(movieIds.size()));
+    }
+
+    private void seed(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        List<Genre> genres = new ArrayList<>();
+        for (int i = 0; i < GENRES; i++) {
+            Genre genre = Genre.builder().genreName("GENRE " + i).build();
+            entityManager.persist(genre);
+            genres.add(genre);
+        }
+
+        List<Movie> seededMovies = new ArrayList<>();
+        for (int i = 0; i < movies; i++) {
+            Movie movie = Movie.builder()
+                    .movieName("MOVIE " + i)
+                    .genre(genres.get(i % GENRES))
+                    .dateAdded(LocalDate.now())
+                    .releaseDate(LocalDate.now().minusYears(random.nextInt(30)))
+                    .numberInStock(20)
+                    .numberAvailable(20)
+                    .build();
+            entityManager.persist(movie);
+            seededMovies.add(movie);
+            movieIds.add(movie.getMovieId());
+        }
+
+        //historical rentals are already returned so the seeded stock stays untouched
+        for (int i = 0; i < customers; i++) {
+            Customer customer = Customer.builder()
+                    .customerName("CUSTOMER " + i)
+                    .birthdate(LocalDate.of(1980, 1, 1).plusDays(i % 7000))
+                    .build();
+            entityManager.persist(customer);
+            customerIds.add(customer.getCustomerId());
+
+            LocalDate lastRentalDate = null;
+            for (int r = 0; r < rentalsPerCustomer; r++) {
+                LocalDate dateRented = LocalDate.now().minusDays(random.nextInt(3000) + 10);
+                if (lastRentalDate == null || dateRented.isAfter(lastRentalDate)) {
+                    lastRentalDate = dateRented;
+                }
+                RentalHeader rentalHeader = RentalHeader.builder()
+                        .customer(customer)
+                        .dateRented(dateRented)
+                        .build();
+                for (int d = 0; d < DETAILS_PER_RENTAL; d++) {
+                    RentalDetail rentalDetail = RentalDetail.builder()
+                            .movie(seededMovies.get(random.nextInt(seededMovies.size())))
+                            .dateReturned(dateRented.plusDays(random.nextInt(7) + 1))
+                            .build();
+                    rentalHeader.addRentalDetail(rentalDetail);
+                }
+                entityManager.persist(rentalHeader);
+            }
+
+            //rentals and returns move the summary counters in place, the row has to exist
+            entityManager.persist(CustomerRentalSummary.builder()
+                    .customerId(customer.getCustomerId())
+                    .customerName(customer.getCustomerName())
+                    .totalRentals((long) rentalsPerCustomer)
+                    .lastRentalDate(lastRentalDate)
+                    .build());
+
+            if (i % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                seededMovies.replaceAll(movie -> entityManager.getReference(Movie.class, movie.getMovieId()));
+            }
+        }
+    }
+}
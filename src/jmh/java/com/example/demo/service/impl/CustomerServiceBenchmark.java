@@ -0,0 +1,35 @@
+package com.example.demo.service.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.example.demo.dto.response.CustomerListDTO;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CustomerServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Benchmark
+    public Page<CustomerListDTO> getAllCustomers(BenchmarkDataset dataset) {
+        int pages = Math.max(1, dataset.customers / PAGE_SIZE);
+        PageRequest pageable = PageRequest.of(ThreadLocalRandom.current().nextInt(pages), PAGE_SIZE,
+                Sort.by("customerName"));
+        return dataset.customerService.getAllCustomers(pageable);
+    }
+}
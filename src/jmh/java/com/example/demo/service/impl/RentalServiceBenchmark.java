@@ -0,0 +1,109 @@
+package com.example.demo.service.impl;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.entity.RentalHeader;
+import com.example.demo.repository.RentalHeaderRepository;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RentalServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Benchmark
+    public RentalListDTO createRental(BenchmarkDataset dataset, RentalCleanup cleanup) {
+        RentalRequestDTO request = new RentalRequestDTO(dataset.randomCustomerId(),
+                List.of(dataset.randomMovieId(), dataset.randomMovieId()));
+        RentalListDTO rental = dataset.rentalService.createRental(request);
+        cleanup.rental = rental;
+        return rental;
+    }
+
+    @Benchmark
+    public Page<RentalListDTO> getAllRentals(BenchmarkDataset dataset) {
+        int pages = Math.max(1, dataset.customers * dataset.rentalsPerCustomer / PAGE_SIZE);
+        PageRequest pageable = PageRequest.of(ThreadLocalRandom.current().nextInt(pages), PAGE_SIZE,
+                Sort.by("dateRented"));
+        return dataset.rentalService.getAllRentals(pageable);
+    }
+
+    @Benchmark
+    public RentalListDTO returnRental(BenchmarkDataset dataset, OpenRental openRental) {
+        return dataset.rentalService.returnRental(openRental.rentalId, openRental.rentalDetailId);
+    }
+
+    @Benchmark
+    public RentalListDTO convertToRentalListDTO(BenchmarkDataset dataset, LoadedRental loadedRental) {
+        return dataset.rentalServiceTarget().convertToRentalListDTO(loadedRental.rentalHeader);
+    }
+
+    //gives back every copy taken by createRental so stock never runs dry during a run
+    @State(Scope.Thread)
+    public static class RentalCleanup {
+        RentalListDTO rental;
+
+        @TearDown(Level.Invocation)
+        public void returnCopies(BenchmarkDataset dataset) {
+            if (rental != null) {
+                rental.getRentDetails().forEach(detail ->
+                        dataset.rentalService.returnRental(rental.getRentalId(), detail.getRentalDetailId()));
+                rental = null;
+            }
+        }
+    }
+
+    //a fresh outstanding rental for every returnRental invocation, created outside the measurement
+    @State(Scope.Thread)
+    public static class OpenRental {
+        Long rentalId;
+        Long rentalDetailId;
+
+        @Setup(Level.Invocation)
+        public void rent(BenchmarkDataset dataset) {
+            RentalListDTO rental = dataset.rentalService.createRental(
+                    new RentalRequestDTO(dataset.randomCustomerId(), List.of(dataset.randomMovieId())));
+            rentalId = rental.getRentalId();
+            rentalDetailId = rental.getRentDetails().get(0).getRentalDetailId();
+        }
+    }
+
+    //a detached rental graph, so only the DTO conversion is measured
+    @State(Scope.Thread)
+    public static class LoadedRental {
+        RentalHeader rentalHeader;
+
+        @Setup(Level.Trial)
+        public void load(BenchmarkDataset dataset) {
+            RentalHeaderRepository repository = dataset.context.getBean(RentalHeaderRepository.class);
+            TransactionTemplate transactionTemplate = dataset.context.getBean(TransactionTemplate.class);
+            rentalHeader = transactionTemplate.execute(status -> repository
+                    .findByIdWithDetails(repository.findRentalIds(PageRequest.of(0, 1)).getContent().get(0))
+                    .orElseThrow());
+        }
+    }
+}
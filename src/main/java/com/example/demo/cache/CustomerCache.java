@@ -0,0 +1,99 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.response.CacheStatsDTO;
+import com.example.demo.dto.response.CustomerListDTO;
+import com.example.demo.repository.CustomerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+//bounded customer lookup cache, written through by the customer service and capped by a TTL
+@Component
+@Slf4j
+public class CustomerCache implements MonitoredCache {
+
+    public static final String CACHE_NAME = "customers";
+
+    private final CustomerRepository customerRepository;
+    private final Cache<Long, CustomerListDTO> cache;
+
+    public CustomerCache(CustomerRepository customerRepository,
+                         @Value("${app.cache.customers.maximum-size:10000}") long maximumSize,
+                         @Value("${app.cache.customers.expire-after-write:PT30M}") Duration expireAfterWrite) {
+        this.customerRepository = customerRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<CustomerListDTO> get(Long customerId) {
+        return Optional.ofNullable(getAll(List.of(customerId)).get(customerId));
+    }
+
+    //misses are loaded together in one query, unknown ids are left out of the result
+    public Map<Long, CustomerListDTO> getAll(Collection<Long> customerIds) {
+        return cache.getAll(customerIds, this::loadAll);
+    }
+
+    //write-through once the change is committed, a rolled back write never reaches the cache;
+    //a load racing the commit can still put the old row back, the TTL bounds how long it stays
+    public void put(CustomerListDTO customer) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(customer.getCustomerId(), customer);
+                }
+            });
+        } else {
+            cache.put(customer.getCustomerId(), customer);
+        }
+    }
+
+    public void evict(Long customerId) {
+        log.debug("Evicting customer ID: {} from customer cache", customerId);
+        cache.invalidate(customerId);
+    }
+
+    @Override
+    public String getCacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public Cache<?, ?> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    public CacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(CACHE_NAME,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount());
+    }
+
+    private Map<Long, CustomerListDTO> loadAll(Collection<? extends Long> customerIds) {
+        return customerRepository.findCustomersByIdIn(List.copyOf(customerIds)).stream()
+                .collect(Collectors.toMap(CustomerListDTO::getCustomerId, customer -> customer));
+    }
+}
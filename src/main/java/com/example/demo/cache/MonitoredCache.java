@@ -0,0 +1,10 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.response.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+
+public interface MonitoredCache {
+    String getCacheName();
+    CacheStatsDTO getStats();
+    Cache<?, ?> getNativeCache();
+}
@@ -0,0 +1,111 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.response.CacheStatsDTO;
+import com.example.demo.repository.MovieRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+//bounded cache of movie name and genre; availability always comes from the database
+@Component
+@Slf4j
+public class MovieCatalogueCache implements MonitoredCache {
+
+    public static final String CACHE_NAME = "movieCatalogue";
+
+    private final MovieRepository movieRepository;
+    private final Cache<Long, MovieCatalogueEntry> cache;
+
+    public MovieCatalogueCache(MovieRepository movieRepository,
+                               @Value("${app.cache.movie-catalogue.maximum-size:10000}") long maximumSize,
+                               @Value("${app.cache.movie-catalogue.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.movieRepository = movieRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<MovieCatalogueEntry> get(Long movieId) {
+        return Optional.ofNullable(getAll(List.of(movieId)).get(movieId));
+    }
+
+    //misses are loaded together in one query, unknown ids are left out of the result. Single ids come
+    //through here too: Caffeine runs a bulk loader outside ConcurrentHashMap.compute, where get(key, loader)
+    //would run the query under a bin lock (a monitor, which pins a virtual thread for the whole query);
+    //CustomerCache and RentalReadCache load the same way
+    public Map<Long, MovieCatalogueEntry> getAll(Collection<Long> movieIds) {
+        return cache.getAll(movieIds, this::loadAll);
+    }
+
+    //once the edit is committed: evicting at flush let a read before the commit load the old name back;
+    //a load racing the commit can still do that, the TTL bounds how long it stays
+    public void evict(Long movieId) {
+        afterCommit(() -> {
+            log.debug("Evicting movie ID: {} from catalogue cache", movieId);
+            cache.invalidate(movieId);
+        });
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            log.debug("Evicting all entries from catalogue cache");
+            cache.invalidateAll();
+        });
+    }
+
+    @Override
+    public String getCacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public Cache<?, ?> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    public CacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(CACHE_NAME,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Map<Long, MovieCatalogueEntry> loadAll(Collection<? extends Long> movieIds) {
+        return movieRepository.findAllByIdWithGenre(List.copyOf(movieIds)).stream()
+                .map(MovieCatalogueEntry::from)
+                .collect(Collectors.toMap(MovieCatalogueEntry::getMovieId, entry -> entry));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.cache;
+
+import com.example.demo.entity.Movie;
+
+import lombok.Value;
+
+//immutable movie metadata, stock is deliberately not part of the entry
+@Value
+public class MovieCatalogueEntry {
+    Long movieId;
+    String movieName;
+    String genreName;
+
+    public static MovieCatalogueEntry from(Movie movie) {
+        String genreName = movie.getGenre() != null
+            ? movie.getGenre().getGenreName()
+            : "Unknown";
+        return new MovieCatalogueEntry(movie.getMovieId(), movie.getMovieName(), genreName);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.cache;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+//keeps the catalogue cache and the search index in step with entity changes; the conditional
+//stock updates are bulk statements, never reach this listener and need no eviction
+//(RentalServiceImpl announces them to the search index itself)
+@Component
+public class MovieCatalogueListener {
+
+    //resolved lazily, the cache depends on a repository that is still being built
+    //while Hibernate creates its entity listeners
+    private final ObjectProvider<MovieCatalogueCache> movieCatalogueCache;
+    private final ObjectProvider<RentalReadCache> rentalReadCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MovieCatalogueListener(ObjectProvider<MovieCatalogueCache> movieCatalogueCache,
+                                  ObjectProvider<RentalReadCache> rentalReadCache,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.movieCatalogueCache = movieCatalogueCache;
+        this.rentalReadCache = rentalReadCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        if (entity instanceof Movie movie) {
+            eventPublisher.publishEvent(MoviesChangedEvent.of(List.of(movie.getMovieId())));
+        }
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        //both caches drop their entries after commit, the catalogue first so the rentals rebuild from the new names
+        if (entity instanceof Movie movie) {
+            movieCatalogueCache.getObject().evict(movie.getMovieId());
+            //cached rentals carry title and genre names, catalogue edits are rare enough to drop them all
+            rentalReadCache.getObject().evictAll();
+            eventPublisher.publishEvent(MoviesChangedEvent.of(List.of(movie.getMovieId())));
+        } else if (entity instanceof Genre) {
+            //genre names are embedded in every entry of that genre
+            movieCatalogueCache.getObject().evictAll();
+            rentalReadCache.getObject().evictAll();
+            eventPublisher.publishEvent(MoviesChangedEvent.all());
+        }
+    }
+}
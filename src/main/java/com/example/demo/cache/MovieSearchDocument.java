@@ -0,0 +1,17 @@
+package com.example.demo.cache;
+
+import java.time.LocalDateTime;
+
+import lombok.Value;
+
+//what the search index keeps per movie, read straight from the Movie and Genre columns;
+//modifiedDate orders concurrent reloads of the same movie
+@Value
+public class MovieSearchDocument {
+    Long movieId;
+    String movieName;
+    String genreName;
+    Integer numberInStock;
+    Integer numberAvailable;
+    LocalDateTime modifiedDate;
+}
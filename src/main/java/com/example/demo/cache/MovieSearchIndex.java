@@ -0,0 +1,251 @@
+package com.example.demo.cache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.repository.MovieRepository;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+//in-memory inverted index over movie and genre names, searched without touching the database;
+//kept current per movie by a background reloader after each commit that changes one, and rebuilt
+//in full on a schedule
+@Component
+@Slf4j
+public class MovieSearchIndex {
+
+    private static final Comparator<MovieSearchDocument> BY_NAME = Comparator
+            .comparing(MovieSearchDocument::getMovieName)
+            .thenComparing(MovieSearchDocument::getMovieId);
+
+    private final MovieRepository movieRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, IndexedMovie> movies = new ConcurrentHashMap<>();
+    //token -> movie ids, sorted so a prefix is one range scan
+    private final ConcurrentNavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    //committed changes waiting for the reloader
+    private final Set<Long> pendingReloads = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingRebuild = new AtomicBoolean();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    public MovieSearchIndex(MovieRepository movieRepository, PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        //read-write, so with replica routing reloads read the primary and never a copy from before the commit
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //every query token must prefix-match a token of the movie or genre name
+    public List<MovieSearchDocument> search(String query, String genreName, Boolean available, int limit) {
+        List<String> terms = tokenize(query);
+        Collection<Long> candidates = terms.isEmpty() ? movies.keySet() : candidates(terms);
+        return candidates.stream()
+                .map(movies::get)
+                .filter(Objects::nonNull)
+                //postings are updated after the document, skip ids whose current version no longer matches
+                .filter(movie -> terms.stream().allMatch(movie::matches))
+                .map(IndexedMovie::getDocument)
+                .filter(document -> genreName == null || document.getGenreName().equalsIgnoreCase(genreName))
+                .filter(document -> available == null || (document.getNumberAvailable() > 0) == available)
+                .sorted(BY_NAME)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return movies.size();
+    }
+
+    //every checkout and return ends here while the request still holds its connection, so the ids are
+    //only queued; a single reloader thread drains them, whatever arrives during a reload goes in the next one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMoviesChanged(MoviesChangedEvent event) {
+        if (event.isAllMovies()) {
+            pendingRebuild.set(true);
+        } else {
+            pendingReloads.addAll(event.getMovieIds());
+        }
+        if (reloading.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("movie-search-reload").start(this::drainReloads);
+        }
+    }
+
+    //one reloader at a time, so the index never holds more than one pool connection
+    void drainReloads() {
+        do {
+            try {
+                do {
+                    reloadPending();
+                } while (hasPendingReloads());
+            } catch (RuntimeException e) {
+                //the changes are committed, the next scheduled rebuild picks them up
+                log.warn("Could not refresh movie search index: {}", e.getMessage());
+            } finally {
+                reloading.set(false);
+            }
+            //ids queued after the last check, while their publisher still saw this reloader running
+        } while (hasPendingReloads() && reloading.compareAndSet(false, true));
+    }
+
+    boolean isReloading() {
+        return reloading.get();
+    }
+
+    private void reloadPending() {
+        if (pendingRebuild.getAndSet(false)) {
+            //anything queued so far is read by the rebuild
+            pendingReloads.clear();
+            rebuild();
+            return;
+        }
+        Set<Long> movieIds = Set.copyOf(pendingReloads);
+        pendingReloads.removeAll(movieIds);
+        reload(movieIds);
+    }
+
+    private boolean hasPendingReloads() {
+        return pendingRebuild.get() || !pendingReloads.isEmpty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+    }
+
+    //catches anything the per-commit reloads missed
+    @Scheduled(initialDelayString = "${app.movie-search.rebuild-interval:PT10M}",
+               fixedDelayString = "${app.movie-search.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<MovieSearchDocument> documents = transactionTemplate.execute(status -> movieRepository.findSearchDocuments());
+        Set<Long> found = new HashSet<>();
+        for (MovieSearchDocument document : documents) {
+            upsert(document);
+            found.add(document.getMovieId());
+        }
+        //gone from the table, unless it was indexed by a reload while this one was reading
+        movies.forEach((movieId, movie) -> {
+            if (!found.contains(movieId) && movie.getDocument().getModifiedDate().isBefore(startedAt)) {
+                remove(movieId);
+            }
+        });
+        log.info("Movie search index rebuilt with {} movies", movies.size());
+    }
+
+    public void reload(Collection<Long> movieIds) {
+        if (movieIds.isEmpty()) {
+            return;
+        }
+        List<MovieSearchDocument> documents = transactionTemplate.execute(status ->
+                movieRepository.findSearchDocumentsByIdIn(movieIds));
+        Set<Long> missing = new HashSet<>(movieIds);
+        for (MovieSearchDocument document : documents) {
+            upsert(document);
+            missing.remove(document.getMovieId());
+        }
+        missing.forEach(this::remove);
+        log.debug("Reloaded movies {} into the search index", movieIds);
+    }
+
+    //runs in the map's bin lock for that movie, so two reloads of it apply in modifiedDate order
+    void upsert(MovieSearchDocument document) {
+        movies.compute(document.getMovieId(), (movieId, current) -> {
+            if (current != null && current.getDocument().getModifiedDate().isAfter(document.getModifiedDate())) {
+                //read before a change that is already indexed
+                return current;
+            }
+            IndexedMovie next = new IndexedMovie(document, tokenize(document.getMovieName() + " " + document.getGenreName()));
+            if (current != null) {
+                current.getTokens().stream()
+                        .filter(token -> !next.getTokens().contains(token))
+                        .forEach(token -> unpost(token, movieId));
+            }
+            next.getTokens().forEach(token -> postings.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(movieId));
+            return next;
+        });
+    }
+
+    void remove(Long movieId) {
+        movies.computeIfPresent(movieId, (id, current) -> {
+            current.getTokens().forEach(token -> unpost(token, id));
+            return null;
+        });
+    }
+
+    //ids of the movies matching every term, intersected smallest set first
+    private Collection<Long> candidates(List<String> terms) {
+        List<Set<Long>> matches = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Set<Long> ids = new HashSet<>();
+            postings.subMap(term, true, term + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+            if (ids.isEmpty()) {
+                return Set.of();
+            }
+            matches.add(ids);
+        }
+        matches.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = matches.get(0);
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        return result;
+    }
+
+    //empty token sets are left in place, the token space is bounded by the catalogue
+    private void unpost(String token, Long movieId) {
+        Set<Long> ids = postings.get(token);
+        if (ids != null) {
+            ids.remove(movieId);
+        }
+    }
+
+    //movie names are stored upper case, letters and digits only
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : text.toUpperCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    @Value
+    private static class IndexedMovie {
+        MovieSearchDocument document;
+        List<String> tokens;
+
+        boolean matches(String term) {
+            return tokens.stream().anyMatch(token -> token.startsWith(term));
+        }
+    }
+}
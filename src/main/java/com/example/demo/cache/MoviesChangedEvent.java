@@ -0,0 +1,28 @@
+package com.example.demo.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+import lombok.Value;
+
+//published inside the transaction that changed these movies (stock included), handled after it commits
+@Value
+public class MoviesChangedEvent {
+    Set<Long> movieIds;
+    //a genre changed, every movie of it may be affected
+    boolean allMovies;
+    //only the copies on hand moved, names and stock totals are unchanged
+    boolean availabilityOnly;
+
+    public static MoviesChangedEvent of(Collection<Long> movieIds) {
+        return new MoviesChangedEvent(Set.copyOf(movieIds), false, false);
+    }
+
+    public static MoviesChangedEvent availability(Collection<Long> movieIds) {
+        return new MoviesChangedEvent(Set.copyOf(movieIds), false, true);
+    }
+
+    public static MoviesChangedEvent all() {
+        return new MoviesChangedEvent(Set.of(), true, false);
+    }
+}
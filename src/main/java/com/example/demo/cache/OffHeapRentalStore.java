@@ -0,0 +1,267 @@
+package com.example.demo.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.example.demo.dto.response.CacheStatsDTO;
+import com.example.demo.dto.response.RentalItemDTO;
+import com.example.demo.dto.response.RentalListDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+//second tier of the rental read cache for the long tail of closed rentals. The encoded rentals are appended
+//to one direct buffer of max-size bytes, allocated at startup and written round-robin: when the write position
+//comes back around, the oldest entries are overwritten and dropped from the index. The heap holds only the index
+//(a Slot and a map node per entry); there is no per-entry native allocation for the collector to track.
+//Entries expire closed-ttl after they were moved here. The JVM needs -XX:MaxDirectMemorySize above max-size.
+@Component
+@ConditionalOnProperty(name = "app.cache.rentals.off-heap.enabled", havingValue = "true")
+@Slf4j
+public class OffHeapRentalStore implements MonitoredCache {
+
+    public static final String CACHE_NAME = "rentalsOffHeap";
+
+    private static final int NULL_LENGTH = -1;
+
+    private final ByteBuffer arena;
+    private final int capacity;
+    private final Cache<Long, Slot> index;
+    //readers decode under the read lock, so a write cannot overwrite bytes while they are read
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    //guarded by the write lock: entries in write order, and the absolute end of the last one written
+    private final ArrayDeque<Slot> written = new ArrayDeque<>();
+    private long writeEnd;
+    private final LongAdder overwritten = new LongAdder();
+
+    public OffHeapRentalStore(@Value("${app.cache.rentals.off-heap.max-size:64MB}") DataSize maximumSize,
+                              @Value("${app.cache.rentals.closed-ttl:PT10M}") Duration timeToLive) {
+        this.capacity = Math.toIntExact(maximumSize.toBytes());
+        this.arena = ByteBuffer.allocateDirect(capacity);
+        this.index = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<RentalListDTO> get(Long rentalId) {
+        Slot slot = index.getIfPresent(rentalId);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            //overwritten between the lookup and the lock
+            if (isOverwritten(slot)) {
+                return Optional.empty();
+            }
+            return Optional.of(decode(arena, slot.offset(capacity)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(RentalListDTO rental) {
+        Encoded encoded = new Encoded(rental);
+        if (encoded.length > capacity) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            //an entry never wraps, the rest of the buffer is skipped when it does not fit
+            long start = writeEnd;
+            int offset = (int) (start % capacity);
+            if (offset + encoded.length > capacity) {
+                start += capacity - offset;
+            }
+            Slot slot = new Slot(rental.getRentalId(), start);
+            writeEnd = start + encoded.length;
+            while (!written.isEmpty() && isOverwritten(written.peekFirst())) {
+                Slot oldest = written.pollFirst();
+                if (index.asMap().remove(oldest.rentalId, oldest)) {
+                    overwritten.increment();
+                }
+            }
+            encoded.writeTo(arena, slot.offset(capacity));
+            written.addLast(slot);
+            index.put(rental.getRentalId(), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void evict(Long rentalId) {
+        index.invalidate(rentalId);
+    }
+
+    //the bytes stay in the buffer until the write position comes around, only the index is cleared
+    public void evictAll() {
+        log.debug("Evicting all entries from off-heap rental store");
+        index.invalidateAll();
+    }
+
+    @Override
+    public String getCacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public Cache<?, ?> getNativeCache() {
+        return index;
+    }
+
+    @Override
+    public CacheStatsDTO getStats() {
+        CacheStats stats = index.stats();
+        return new CacheStatsDTO(CACHE_NAME,
+                index.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount() + overwritten.sum());
+    }
+
+    //a later write reached past this entry's bytes on the next lap
+    private boolean isOverwritten(Slot slot) {
+        return writeEnd > slot.start + capacity;
+    }
+
+    //hand-written layout of the fields getRentalById fills, decoded straight from the arena
+    static RentalListDTO decode(ByteBuffer arena, int offset) {
+        //a view with its own position, the arena's is never moved
+        ByteBuffer in = arena.duplicate().position(offset);
+        Long rentalId = in.getLong();
+        String customerName = readString(in);
+        LocalDate dateRented = readDate(in);
+        LocalDateTime modifiedDate = readDateTime(in);
+        int details = in.getInt();
+        List<RentalItemDTO> rentDetails = new ArrayList<>(details);
+        for (int i = 0; i < details; i++) {
+            rentDetails.add(new RentalItemDTO(in.getLong(), readString(in), readString(in), readDate(in)));
+        }
+        RentalListDTO rental = new RentalListDTO(rentalId, customerName, dateRented, rentDetails);
+        rental.setModifiedDate(modifiedDate);
+        return rental;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        long epochDay = in.getLong();
+        return epochDay != Long.MIN_VALUE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer in) {
+        LocalDate date = readDate(in);
+        long nanoOfDay = in.getLong();
+        return date != null ? LocalDateTime.of(date, LocalTime.ofNanoOfDay(nanoOfDay)) : null;
+    }
+
+    //where an entry starts, as an absolute position that keeps growing with every lap
+    private static final class Slot {
+
+        private final Long rentalId;
+        private final long start;
+
+        private Slot(Long rentalId, long start) {
+            this.rentalId = rentalId;
+            this.start = start;
+        }
+
+        int offset(int capacity) {
+            return (int) (start % capacity);
+        }
+    }
+
+    //strings are turned into UTF-8 once, so the length is known before any space is taken in the arena
+    private static final class Encoded {
+
+        private final RentalListDTO rental;
+        private final byte[] customerName;
+        private final byte[][] movieNames;
+        private final byte[][] genres;
+        private final int length;
+
+        private Encoded(RentalListDTO rental) {
+            this.rental = rental;
+            List<RentalItemDTO> items = rental.getRentDetails();
+            this.customerName = utf8(rental.getCustomerName());
+            this.movieNames = new byte[items.size()][];
+            this.genres = new byte[items.size()][];
+            int size = Long.BYTES + stringSize(customerName) + Long.BYTES + 2 * Long.BYTES + Integer.BYTES;
+            for (int i = 0; i < items.size(); i++) {
+                movieNames[i] = utf8(items.get(i).getMovieName());
+                genres[i] = utf8(items.get(i).getGenre());
+                size += Long.BYTES + stringSize(movieNames[i]) + stringSize(genres[i]) + Long.BYTES;
+            }
+            this.length = size;
+        }
+
+        void writeTo(ByteBuffer arena, int offset) {
+            ByteBuffer out = arena.duplicate().position(offset);
+            out.putLong(rental.getRentalId());
+            writeString(out, customerName);
+            writeDate(out, rental.getDateRented());
+            writeDateTime(out, rental.getModifiedDate());
+            List<RentalItemDTO> items = rental.getRentDetails();
+            out.putInt(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                out.putLong(items.get(i).getRentalDetailId());
+                writeString(out, movieNames[i]);
+                writeString(out, genres[i]);
+                writeDate(out, items.get(i).getDateReturned());
+            }
+        }
+
+        private static byte[] utf8(String value) {
+            return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        }
+
+        private static int stringSize(byte[] utf8) {
+            return Integer.BYTES + (utf8 != null ? utf8.length : 0);
+        }
+
+        private static void writeString(ByteBuffer out, byte[] utf8) {
+            if (utf8 == null) {
+                out.putInt(NULL_LENGTH);
+            } else {
+                out.putInt(utf8.length);
+                out.put(utf8);
+            }
+        }
+
+        private static void writeDate(ByteBuffer out, LocalDate value) {
+            out.putLong(value != null ? value.toEpochDay() : Long.MIN_VALUE);
+        }
+
+        private static void writeDateTime(ByteBuffer out, LocalDateTime value) {
+            writeDate(out, value != null ? value.toLocalDate() : null);
+            out.putLong(value != null ? value.toLocalTime().toNanoOfDay() : 0);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.response.CacheStatsDTO;
+import com.example.demo.dto.response.RentalListDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+//assembled rentals by id: a closed rental (every copy returned) only changes when a name it embeds is
+//edited and is kept for closed-ttl, an open one for open-ttl; closed rentals pushed out of the heap move
+//to the off-heap store when it is enabled
+@Component
+@Slf4j
+public class RentalReadCache implements MonitoredCache {
+
+    public static final String CACHE_NAME = "rentals";
+
+    private final Cache<Long, RentalListDTO> cache;
+    private final OffHeapRentalStore offHeapStore;
+    private final TransactionTemplate transactionTemplate;
+
+    public RentalReadCache(PlatformTransactionManager transactionManager,
+                           ObjectProvider<OffHeapRentalStore> offHeapStore,
+                           @Value("${app.cache.rentals.maximum-size:10000}") long maximumSize,
+                           @Value("${app.cache.rentals.open-ttl:PT30S}") Duration openTtl,
+                           @Value("${app.cache.rentals.closed-ttl:PT10M}") Duration closedTtl) {
+        this.offHeapStore = offHeapStore.getIfAvailable();
+        //read-write, so with replica routing a miss reads the primary: right after a return evicts the entry,
+        //a lagging replica would hand back the open rental and it would be cached for open-ttl
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new RentalExpiry(openTtl, closedTtl))
+                //runs with the eviction, so an invalidation cannot overtake the move
+                .evictionListener((Long rentalId, RentalListDTO rental, RemovalCause cause) -> {
+                    if (this.offHeapStore != null && cause == RemovalCause.SIZE && isClosed(rental)) {
+                        this.offHeapStore.put(rental);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    //misses go to the off-heap store, then to the loader in a transaction on the primary; unknown ids are left out.
+    //A single id is still a bulk load, so the transaction runs outside the map (see MovieCatalogueCache.getAll)
+    public Optional<RentalListDTO> get(Long rentalId, Function<Collection<Long>, Map<Long, RentalListDTO>> loader) {
+        return Optional.ofNullable(cache.getAll(List.of(rentalId), rentalIds -> load(rentalIds, loader)).get(rentalId));
+    }
+
+    //after commit, a reader in between still sees the old rows and may cache them again; returns only
+    //ever close copies, so what it caches is the open state and expires with open-ttl
+    public void evict(Collection<Long> rentalIds) {
+        afterCommit(() -> {
+            cache.invalidateAll(rentalIds);
+            if (offHeapStore != null) {
+                rentalIds.forEach(offHeapStore::evict);
+            }
+        });
+    }
+
+    //customer and catalogue names are embedded in every entry; runs after commit, so a load in between
+    //can still cache the old name, closed-ttl bounds how long it is served
+    public void evictAll() {
+        afterCommit(() -> {
+            log.debug("Evicting all entries from rental read cache");
+            cache.invalidateAll();
+            if (offHeapStore != null) {
+                offHeapStore.evictAll();
+            }
+        });
+    }
+
+    public static boolean isClosed(RentalListDTO rental) {
+        return !rental.getRentDetails().isEmpty()
+                && rental.getRentDetails().stream().allMatch(item -> item.getDateReturned() != null);
+    }
+
+    @Override
+    public String getCacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public Cache<?, ?> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    public CacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(CACHE_NAME,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount());
+    }
+
+    private Map<Long, RentalListDTO> load(Set<? extends Long> rentalIds,
+                                          Function<Collection<Long>, Map<Long, RentalListDTO>> loader) {
+        Map<Long, RentalListDTO> rentals = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long rentalId : rentalIds) {
+            Optional<RentalListDTO> stored = offHeapStore != null ? offHeapStore.get(rentalId) : Optional.empty();
+            if (stored.isPresent()) {
+                rentals.put(rentalId, stored.get());
+            } else {
+                misses.add(rentalId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            rentals.putAll(transactionTemplate.execute(status -> loader.apply(misses)));
+        }
+        return rentals;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    //open and closed rentals each expire after their own TTL from the last load
+    private static final class RentalExpiry implements Expiry<Long, RentalListDTO> {
+
+        private final long openTtlNanos;
+        private final long closedTtlNanos;
+
+        RentalExpiry(Duration openTtl, Duration closedTtl) {
+            this.openTtlNanos = openTtl.toNanos();
+            this.closedTtlNanos = closedTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long rentalId, RentalListDTO rental, long currentTime) {
+            return isClosed(rental) ? closedTtlNanos : openTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long rentalId, RentalListDTO rental, long currentTime, long currentDuration) {
+            return expireAfterCreate(rentalId, rental, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long rentalId, RentalListDTO rental, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.config;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.example.demo.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+//caps the requests running at once, with virtual threads Tomcat no longer does it through its worker pool
+//and every extra request would just queue inside Hikari until connection-timeout; background work takes
+//connections from the same pool outside the cap, so the cap is the pool size minus what it reserves
+@Component
+@ConditionalOnProperty(prefix = "app.web.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final Counter rejected;
+
+    public ConcurrencyLimitInterceptor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.web.concurrency-limit.reserved-connections:0}") int reservedConnections,
+            @Value("${app.web.concurrency-limit.acquire-timeout:5s}") Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        int maxConcurrentRequests = Math.max(1, poolSize - reservedConnections);
+        if (poolSize - reservedConnections < 1) {
+            log.warn("Pool of {} connections with {} reserved, admitting a single request at a time",
+                    poolSize, reservedConnections);
+        }
+        //fair, so waiting requests are served in arrival order
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeout = acquireTimeout;
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Requests turned away by the concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.permits.available", permits, Semaphore::availablePermits)
+                .description("Free slots of the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        //nested dispatches (forward, include) of an admitted request come through here again
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        //the closing dispatch of an async request (streaming export) gave its slot back when it went async,
+        //its response is already committed and must not wait or fail here
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        //a waiting virtual thread parks here without holding a carrier
+        if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            rejected.increment();
+            log.warn("Concurrency limit reached, rejecting {} {}", request.getMethod(), request.getRequestURI());
+            throw new ServiceUnavailableException("Server is busy, please retry later", acquireTimeout);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        release(request);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        //the servlet thread is handed back, so is the slot
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+}
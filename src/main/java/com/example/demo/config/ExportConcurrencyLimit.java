@@ -0,0 +1,59 @@
+package com.example.demo.config;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+//a streaming export holds a pool connection for as long as its client reads, up to spring.mvc.async.request-timeout,
+//and gives its web slot back as soon as it goes async; its own few slots keep report clients from draining the pool
+//and are counted in app.web.concurrency-limit.reserved-connections
+@Component
+@Slf4j
+public class ExportConcurrencyLimit {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final Counter rejected;
+
+    public ExportConcurrencyLimit(
+            @Value("${app.rental.export.max-concurrent:1}") int maxConcurrentExports,
+            @Value("${app.web.concurrency-limit.acquire-timeout:5s}") Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentExports, true);
+        this.acquireTimeout = acquireTimeout;
+        this.rejected = Counter.builder("rental.export.rejected")
+                .description("Exports turned away because the export slots were taken")
+                .register(meterRegistry);
+        Gauge.builder("rental.export.permits.available", permits, Semaphore::availablePermits)
+                .description("Free export slots")
+                .register(meterRegistry);
+    }
+
+    //takes a slot on the request thread, so a busy node still answers 503 before the response is committed;
+    //the body gives it back once it has written the last byte or failed
+    public StreamingResponseBody limit(StreamingResponseBody body) throws InterruptedException {
+        if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            rejected.increment();
+            log.warn("Export limit reached, rejecting export");
+            throw new ServiceUnavailableException("Too many exports running, please retry later", acquireTimeout);
+        }
+        return outputStream -> {
+            try {
+                body.writeTo(outputStream);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.cache.MonitoredCache;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+public class MetricsConfig {
+
+    //hit, miss, eviction and size meters for every application cache, tagged cache=<name>
+    @Bean
+    public MeterBinder applicationCacheMetrics(List<MonitoredCache> caches) {
+        return registry -> caches.forEach(cache ->
+                CaffeineCacheMetrics.monitor(registry, cache.getNativeCache(), cache.getCacheName()));
+    }
+}
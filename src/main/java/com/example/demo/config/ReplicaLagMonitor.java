@@ -0,0 +1,84 @@
+package com.example.demo.config;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+//heartbeat check: writes the time to the primary and reads it back from the replica, the difference
+//is how far replication is behind; read-only transactions stay on the primary until the first good beat
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String WRITE_BEAT = "UPDATE ReplicationHeartbeat SET BeatTime = ? WHERE HeartbeatID = 1";
+    static final String READ_BEAT = "SELECT BeatTime FROM ReplicationHeartbeat WHERE HeartbeatID = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private volatile boolean replicaUsable;
+    private volatile Duration lag = Duration.ZERO;
+    //only touched by the scheduler, fixed-delay runs never overlap
+    private LocalDateTime lastBeat;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lag.toMillis() / 1000.0)
+                .description("Replication delay seen by the last heartbeat")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("1 while read-only transactions are sent to the replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    //resolution is one heartbeat-interval: a replica that already shows the previous beat counts as
+    //caught up; instances share the heartbeat row, so clock skew between application hosts adds to the lag
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.heartbeat-interval:PT2S}")
+    public void check() {
+        LocalDateTime now = LocalDateTime.now();
+        boolean usable;
+        try {
+            Timestamp seen = replica.queryForObject(READ_BEAT, Timestamp.class);
+            if (seen == null) {
+                lag = Duration.ofDays(1);
+            } else if (lastBeat != null && !seen.toLocalDateTime().isBefore(lastBeat)) {
+                lag = Duration.ZERO;
+            } else {
+                lag = Duration.between(seen.toLocalDateTime(), now);
+            }
+            usable = lag.compareTo(maxLag) <= 0;
+
+            primary.update(WRITE_BEAT, Timestamp.valueOf(now));
+            lastBeat = now;
+        } catch (DataAccessException e) {
+            log.warn("Replica heartbeat failed: {}", e.getMessage());
+            usable = false;
+        }
+
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Replica caught up (lag {} ms), read-only transactions go to the replica", lag.toMillis());
+            } else {
+                log.warn("Replica lag {} ms over {} ms, read-only transactions fall back to the primary",
+                        lag.toMillis(), maxLag.toMillis());
+            }
+        }
+        replicaUsable = usable;
+    }
+}
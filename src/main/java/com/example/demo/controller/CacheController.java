@@ -0,0 +1,30 @@
+package com.example.demo.controller;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.cache.MonitoredCache;
+import com.example.demo.dto.response.CacheStatsDTO;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/caches")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final List<MonitoredCache> caches;
+
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        List<CacheStatsDTO> stats = caches.stream()
+                .map(MonitoredCache::getStats)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(stats);
+    }
+}
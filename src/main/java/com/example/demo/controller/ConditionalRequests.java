@@ -0,0 +1,28 @@
+package com.example.demo.controller;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.http.CacheControl;
+import org.springframework.web.context.request.WebRequest;
+
+//conditional GET support for resources versioned by their modifiedDate
+final class ConditionalRequests {
+
+    //clients may keep a copy but must revalidate it on every use
+    static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private ConditionalRequests() {
+    }
+
+    //true when the client's copy is current, the 304 has then been prepared and the handler returns null;
+    //otherwise the ETag and Last-Modified headers are set for the 200 that follows
+    static boolean notModified(WebRequest request, LocalDateTime modifiedDate) {
+        Instant instant = modifiedDate.atZone(ZoneId.systemDefault()).toInstant();
+        //weak, the same version can be rendered with different catalogue names;
+        //microseconds, so two changes within the Last-Modified second still differ
+        String etag = "W/\"" + (instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000) + "\"";
+        return request.checkNotModified(etag, instant.toEpochMilli());
+    }
+}
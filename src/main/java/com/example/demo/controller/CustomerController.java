@@ -16,11 +16,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.example.demo.dto.request.CustomerUpdateDTO;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.CustomerListDTO;
+import com.example.demo.dto.response.CustomerRentalSummaryDTO;
 import com.example.demo.dto.response.PageResponse;
 import com.example.demo.entity.Customer;
 import com.example.demo.service.CustomerService;
@@ -33,6 +37,8 @@ import jakarta.validation.Valid;
 @Slf4j
 public class CustomerController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final CustomerService customerService;
 
     @GetMapping
@@ -43,9 +49,38 @@ public class CustomerController {
         return ResponseEntity.ok(PageResponse.of(customerList));
     }
 
+    //opt-in keyset mode: GET /api/v1/customers?cursor= starts, then pass back nextCursor
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<CustomerListDTO>> getCustomersAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return ResponseEntity.ok(customerService.getCustomersAfter(cursor, pageSize));
+    }
+
+    //rental totals per customer, sortable by totalRentals, outstandingTitles, lastRentalDate or customerName
+    @GetMapping("/summaries")
+    public ResponseEntity<PageResponse<CustomerRentalSummaryDTO>> getRentalSummaries(
+            @PageableDefault(size = 10, sort = "totalRentals", direction = Sort.Direction.DESC)
+            Pageable pageable) {
+        return ResponseEntity.ok(PageResponse.of(customerService.getRentalSummaries(pageable)));
+    }
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<CustomerRentalSummaryDTO> getRentalSummary(@PathVariable Long id) {
+        return ResponseEntity.ok(customerService.getRentalSummary(id));
+    }
+
+    //conditional GET: the customer comes from the lookup cache, so the validator costs no query
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerListDTO> getRentalById(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.getCustomerById(id));
+    public ResponseEntity<CustomerListDTO> getRentalById(@PathVariable Long id, WebRequest request) {
+        CustomerListDTO customer = customerService.getCustomerById(id);
+        if (ConditionalRequests.notModified(request, customer.getModifiedDate())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(customer);
     }
 
     @PostMapping
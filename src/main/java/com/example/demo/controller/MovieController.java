@@ -0,0 +1,35 @@
+package com.example.demo.controller;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.response.MovieSearchResultDTO;
+import com.example.demo.service.MovieService;
+
+@RestController
+@RequestMapping("/api/v1/movies")
+@RequiredArgsConstructor
+public class MovieController {
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private final MovieService movieService;
+
+    //GET /api/v1/movies/search?q=dark kni&genre=action&available=true, every word matches as a prefix
+    @GetMapping("/search")
+    public ResponseEntity<List<MovieSearchResultDTO>> searchMovies(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "20") int limit) {
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok(movieService.searchMovies(q, genre, available, maxResults));
+    }
+}
@@ -1,8 +1,20 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.ExportConcurrencyLimit;
+import com.example.demo.dto.request.RentalBatchRequestDTO;
+import com.example.demo.dto.request.RentalExportFormat;
 import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.request.RentalReturnDTO;
+import com.example.demo.dto.response.CursorPageResponse;
+import com.example.demo.dto.response.OverdueRentalDTO;
 import com.example.demo.dto.response.PageResponse;
+import com.example.demo.dto.response.RentalBatchResponseDTO;
 import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.dto.response.RentalRequestStatusDTO;
+import com.example.demo.dto.response.RentalReturnResultDTO;
+import com.example.demo.service.OverdueRentalService;
+import com.example.demo.service.RentalExportService;
+import com.example.demo.service.RentalRequestService;
 import com.example.demo.service.RentalService;
 
 import jakarta.validation.Valid;
@@ -14,6 +26,8 @@ import java.net.URI;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -21,7 +35,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
@@ -30,7 +47,13 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 @Slf4j
 public class RentalController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final RentalService rentalService;
+    private final RentalRequestService rentalRequestService;
+    private final RentalExportService rentalExportService;
+    private final ExportConcurrencyLimit exportConcurrencyLimit;
+    private final OverdueRentalService overdueRentalService;
 
     @GetMapping
     public ResponseEntity<PageResponse<RentalListDTO>> getAllRentals(
@@ -39,9 +62,50 @@ public class RentalController {
         return ResponseEntity.ok(PageResponse.of(rentalsPage));
     }
 
+    //opt-in keyset mode: GET /api/v1/rentals?cursor= starts, then pass back nextCursor
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<RentalListDTO>> getRentalsAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return ResponseEntity.ok(rentalService.getRentalsAfter(cursor, pageSize));
+    }
+
+    //copies still out past their rental period, as of the last overdue scan
+    @GetMapping("/overdue")
+    public ResponseEntity<PageResponse<OverdueRentalDTO>> getOverdueRentals(
+            @PageableDefault(size = 10, sort = "dateRented") Pageable pageable) {
+        return ResponseEntity.ok(PageResponse.of(overdueRentalService.getOverdueRentals(pageable)));
+    }
+
+    //full history as NDJSON (one RentalListDTO per line) or CSV (one line per rental detail), written as it is read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRentals(
+            @RequestParam(defaultValue = "ndjson") String format) throws InterruptedException {
+        RentalExportFormat exportFormat = RentalExportFormat.from(format);
+        StreamingResponseBody body = exportConcurrencyLimit.limit(
+                outputStream -> rentalExportService.exportRentals(exportFormat, outputStream));
+        
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("rentals." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    //conditional GET: the validators come from the representation served, so a 304 always confirms the
+    //body the client holds; a polling client with a current copy is answered from the rental read cache
     @GetMapping("/{id}")
-    public ResponseEntity<RentalListDTO> getRentalById(@PathVariable Long id) {
-    return ResponseEntity.ok(rentalService.getRentalById(id));
+    public ResponseEntity<RentalListDTO> getRentalById(@PathVariable Long id, WebRequest request) {
+        RentalListDTO rental = rentalService.getRentalById(id);
+        if (ConditionalRequests.notModified(request, rental.getModifiedDate())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(rental);
     }
 
     @PostMapping
@@ -65,6 +129,44 @@ public class RentalController {
                 .body(createdRental);
     }
 
+    //asynchronous checkout: 202 right after the request is stored, poll the Location for the outcome
+    @PostMapping("/async")
+    public ResponseEntity<RentalRequestStatusDTO> submitRental(
+            @Valid @RequestBody RentalRequestDTO rentalRequest) {
+        
+        RentalRequestStatusDTO accepted = rentalRequestService.submitRental(rentalRequest);
+        
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentContextPath()
+                .path("/api/v1/rentals/requests/{id}")
+                .buildAndExpand(accepted.getRentalRequestId())
+                .toUri();
+        
+        return ResponseEntity
+                .accepted()
+                .location(location)
+                .body(accepted);
+    }
+
+    @GetMapping("/requests/{id}")
+    public ResponseEntity<RentalRequestStatusDTO> getRentalRequest(@PathVariable Long id) {
+        return ResponseEntity.ok(rentalRequestService.getRentalRequest(id));
+    }
+
+    //offline kiosk re-sync: every item gets its own result, failures do not abort the batch
+    @PostMapping("/batch")
+    public ResponseEntity<RentalBatchResponseDTO> createRentals(
+            @Valid @RequestBody RentalBatchRequestDTO batchRequest) {
+        
+        log.info("Received rental batch with {} requests", batchRequest.getRentals().size());
+        
+        RentalBatchResponseDTO result = rentalService.createRentals(batchRequest.getRentals());
+        
+        log.info("Rental batch processed: {} created, {} failed", result.getCreated(), result.getFailed());
+        
+        return ResponseEntity.ok(result);
+    }
+
     @PatchMapping("/{rentalId}/details/{rentalDetailId}/return")
     public ResponseEntity<RentalListDTO> returnRental(
             @PathVariable Long rentalId,
@@ -73,4 +175,13 @@ public class RentalController {
         RentalListDTO returnedDetail = rentalService.returnRental(rentalId, rentalDetailId);
         return ResponseEntity.ok(returnedDetail);
     }
+
+    //drop-box returns: closes one outstanding copy per movie id, oldest rental first
+    @PostMapping("/returns")
+    public ResponseEntity<RentalReturnResultDTO> returnRentals(
+            @Valid @RequestBody RentalReturnDTO rentalReturn) {
+        
+        RentalReturnResultDTO result = rentalService.returnRentals(rentalReturn);
+        return ResponseEntity.ok(result);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.demo.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalBatchRequestDTO {
+
+    public static final int MAX_RENTALS = 1000;
+
+    @NotEmpty(message = "At least one rental is required")
+    @Size(max = MAX_RENTALS, message = "A batch can contain at most " + MAX_RENTALS + " rentals")
+    private List<@Valid RentalRequestDTO> rentals;
+}
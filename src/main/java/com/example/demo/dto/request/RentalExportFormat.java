@@ -0,0 +1,39 @@
+package com.example.demo.dto.request;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.springframework.http.MediaType;
+
+import com.example.demo.exception.ValidationException;
+
+public enum RentalExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    RentalExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static RentalExportFormat from(String format) {
+        return Arrays.stream(values())
+                .filter(value -> value.extension.equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("Unsupported export format: " + format
+                        + ", expected one of: " + Arrays.stream(values())
+                                .map(RentalExportFormat::getExtension)
+                                .collect(Collectors.joining(", "))));
+    }
+}
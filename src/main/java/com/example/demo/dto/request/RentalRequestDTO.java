@@ -10,6 +10,7 @@ import java.util.List;
 
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 @Data
 @NoArgsConstructor
@@ -17,10 +18,14 @@ import jakarta.validation.constraints.NotNull;
 @Builder
 public class RentalRequestDTO {
     
+    //a full-width id plus its comma is 20 characters, so this many always fit the 4000 character RentalRequest.MovieIDs column
+    public static final int MAX_MOVIES = 200;
+    
     @NotNull(message = "Customer ID is required")
     private Long customerId;
     
     @NotEmpty(message = "At least one movie must be selected")
+    @Size(max = MAX_MOVIES, message = "At most " + MAX_MOVIES + " movies can be rented at once")
     private List<Long> movieIds;
     
     private LocalDate dateRented;
@@ -2,23 +2,30 @@ package com.example.demo.dto.request;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
 
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class RentalReturnDTO {
     
+    //keeps the IN lists of the bulk statements well below the SQL Server parameter limit
+    public static final int MAX_MOVIES = 500;
+    
     @NotNull(message = "Customer ID is required")
     private Long customerId;
     
     @NotEmpty(message = "At least one movie must be selected")
-    private List<Long> movieIds;
+    @Size(max = MAX_MOVIES, message = "At most " + MAX_MOVIES + " movies can be returned at once")
+    private List<Long> movieIds; // one entry per returned copy
     
-    private LocalDate dateRented; // Optional, defaults to today
+    private LocalDate dateRented; // Optional, only close copies rented on this date
     
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerRentalSummaryDTO {
+    private Long customerId;
+    private String customerName;
+    private Long totalRentals;
+    private Long outstandingTitles;
+    private LocalDate lastRentalDate;
+    private LocalDateTime modifiedDate;
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieSearchResultDTO {
+    private Long movieId;
+    private String movieName;
+    private String genre;
+    private Integer numberInStock;
+    private Integer numberAvailable;
+}
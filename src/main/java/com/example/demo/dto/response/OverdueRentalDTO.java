@@ -0,0 +1,24 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueRentalDTO {
+    private Long rentalDetailId;
+    private Long rentalId;
+    private Long customerId;
+    private String customerName;
+    private Long movieId;
+    private String movieName;
+    private LocalDate dateRented;
+    private LocalDate dueDate;
+    private long daysOverdue;
+    private LocalDateTime detectedDate;
+}
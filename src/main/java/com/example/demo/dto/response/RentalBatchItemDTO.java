@@ -0,0 +1,23 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalBatchItemDTO {
+    private int index; // position of the request in the submitted batch
+    private String status; // "CREATED", "FAILED"
+    private RentalListDTO rental;
+    private String error;
+
+    public static RentalBatchItemDTO created(int index, RentalListDTO rental) {
+        return new RentalBatchItemDTO(index, "CREATED", rental, null);
+    }
+
+    public static RentalBatchItemDTO failed(int index, String error) {
+        return new RentalBatchItemDTO(index, "FAILED", null, error);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalBatchResponseDTO {
+    private int total;
+    private int created;
+    private int failed;
+    private List<RentalBatchItemDTO> results;
+
+    public static RentalBatchResponseDTO of(List<RentalBatchItemDTO> results) {
+        int created = (int) results.stream()
+                .filter(result -> "CREATED".equals(result.getStatus()))
+                .count();
+        return new RentalBatchResponseDTO(results.size(), created, results.size() - created, results);
+    }
+}
@@ -13,6 +13,7 @@ public class RentalListDTO {
     private LocalDateTime createdDate;
     private String status; // "CREATED", "PROCESSING", "COMPLETED"
     private List<RentalItemDTO> rentDetails;
+    private LocalDateTime modifiedDate; // later of the rental and customer timestamps it was built from
     
     public RentalListDTO(Long rentalId, String customerName, LocalDate dateRented, List<RentalItemDTO> rentDetails) {
         this.rentalId = rentalId;
@@ -0,0 +1,19 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalRequestStatusDTO {
+    private Long rentalRequestId;
+    private String status; // "CREATED", "PROCESSING", "COMPLETED", "FAILED"
+    private Long rentalId; // set once COMPLETED
+    private String errorMessage; // set once FAILED
+    private LocalDateTime createdDate;
+    private LocalDateTime modifiedDate;
+}
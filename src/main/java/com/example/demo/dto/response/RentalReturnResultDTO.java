@@ -0,0 +1,19 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalReturnResultDTO {
+    private Long customerId;
+    private LocalDate dateReturned;
+    private int returned;
+    private List<Long> rentalIds;
+    private List<Long> rentalDetailIds;
+}
@@ -6,6 +6,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,6 +17,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "Customer")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +48,12 @@ public class Customer {
     @Column(name = "ModifiedDate", nullable = false)
     private LocalDateTime modifiedDate;
 
+    //optimistic lock for customer edits, nothing updates this table in bulk
+    @Version
+    @Column(name = "Version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     @PrePersist
     @PreUpdate
     private void formatNameToUpper() {
@@ -0,0 +1,50 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//one row per customer, kept current by the rental and return transactions,
+//the customer name is copied here so the list can be sorted without a join
+@Entity
+@Table(name = "CustomerRentalSummary", indexes = {
+        @Index(name = "IX_CustomerRentalSummary_TotalRentals", columnList = "TotalRentals, CustomerID"),
+        @Index(name = "IX_CustomerRentalSummary_OutstandingTitles", columnList = "OutstandingTitles, CustomerID"),
+        @Index(name = "IX_CustomerRentalSummary_LastRentalDate", columnList = "LastRentalDate, CustomerID"),
+        @Index(name = "IX_CustomerRentalSummary_CustomerName", columnList = "CustomerName, CustomerID")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerRentalSummary {
+    
+    @Id
+    @Column(name = "CustomerID")
+    private Long customerId;
+    
+    @Column(name = "CustomerName", nullable = false, length = 100)
+    private String customerName;
+    
+    @Column(name = "TotalRentals", nullable = false)
+    @Builder.Default
+    private Long totalRentals = 0L;
+    
+    @Column(name = "OutstandingTitles", nullable = false)
+    @Builder.Default
+    private Long outstandingTitles = 0L;
+    
+    @Column(name = "LastRentalDate")
+    private LocalDate lastRentalDate;
+    
+    @UpdateTimestamp
+    @Column(name = "ModifiedDate", nullable = false)
+    private LocalDateTime modifiedDate;
+}
@@ -1,18 +1,27 @@
 package com.example.demo.entity;
 
 import jakarta.persistence.*;
+
+import com.example.demo.cache.MovieCatalogueListener;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
+//reference data, rarely edited; a rename goes through the cache and MovieCatalogueListener
 @Entity
 @Table(name = "Genre")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(MovieCatalogueListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
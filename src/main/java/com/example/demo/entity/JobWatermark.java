@@ -0,0 +1,33 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//how far a scheduled job has got, so the next run starts where the last one stopped
+@Entity
+@Table(name = "JobWatermark")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobWatermark {
+    
+    @Id
+    @Column(name = "JobName", length = 100)
+    private String jobName;
+    
+    @Column(name = "Watermark")
+    private LocalDate watermark;
+    
+    @UpdateTimestamp
+    @Column(name = "ModifiedDate", nullable = false)
+    private LocalDateTime modifiedDate;
+}
@@ -1,6 +1,9 @@
 package com.example.demo.entity;
 
 import jakarta.persistence.*;
+
+import com.example.demo.cache.MovieCatalogueListener;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,8 +16,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+//not in the second-level cache: every checkout and return moves the stock columns with a bulk
+//statement, which would clear the whole region; catalogue reads go through MovieCatalogueCache
 @Entity
 @Table(name = "Movie")
+@EntityListeners(MovieCatalogueListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -57,6 +63,12 @@ public class Movie {
     @UpdateTimestamp
     @Column(name = "ModifiedDate", nullable = false)
     private LocalDateTime modifiedDate;
+
+    //optimistic lock, the stock statements in MovieRepository and the ledger flush bump it as well
+    @Version
+    @Column(name = "Version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
     
     @PrePersist
     @PreUpdate
@@ -0,0 +1,30 @@
+package com.example.demo.entity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+//stores the requested movie ids as "1,2,2,7", order and repeated copies are kept
+@Converter
+public class MovieIdListConverter implements AttributeConverter<List<Long>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<Long> movieIds) {
+        return movieIds == null ? null : movieIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public List<Long> convertToEntityAttribute(String column) {
+        if (column == null || column.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(column.split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+}
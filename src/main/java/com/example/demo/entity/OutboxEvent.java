@@ -0,0 +1,46 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+//an event waiting to be relayed, written in the same transaction as the change it describes
+//and deleted once the sink has taken it
+@Entity
+@Table(name = "OutboxEvent")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    
+    //IDENTITY rather than a pooled sequence: an event caused by a committed one always gets a higher id,
+    //so the relay keeps cause before effect across instances (one row per transaction, nothing to batch)
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "OutboxEventID")
+    private Long outboxEventId;
+    
+    @Column(name = "AggregateType", nullable = false, length = 50)
+    private String aggregateType;
+    
+    @Column(name = "AggregateID", nullable = false)
+    private Long aggregateId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "EventType", nullable = false, length = 50)
+    private OutboxEventType eventType;
+    
+    @Column(name = "Payload", nullable = false, length = 1_000_000)
+    private String payload;
+    
+    @CreationTimestamp
+    @Column(name = "CreatedDate", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+}
@@ -0,0 +1,7 @@
+package com.example.demo.entity;
+
+//what happened to the aggregate of an outbox event, the payload shape depends on it
+public enum OutboxEventType {
+    RENTAL_CREATED,
+    RENTAL_RETURNED
+}
@@ -0,0 +1,40 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//a rental detail found still out past its rental period, written by the overdue scan
+//and dropped again once the copy is back
+@Entity
+@Table(name = "OverdueRental", indexes = @Index(name = "IX_OverdueRental_DateRented", columnList = "DateRented, RentalDetailId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OverdueRental {
+    
+    @Id
+    @Column(name = "RentalDetailId")
+    private Long rentalDetailId;
+    
+    @Column(name = "RentalID", nullable = false)
+    private Long rentalId;
+    
+    @Column(name = "CustomerID", nullable = false)
+    private Long customerId;
+    
+    @Column(name = "MovieID", nullable = false)
+    private Long movieId;
+    
+    @Column(name = "DateRented", nullable = false)
+    private LocalDate dateRented;
+    
+    @Column(name = "DetectedDate", nullable = false)
+    private LocalDateTime detectedDate;
+}
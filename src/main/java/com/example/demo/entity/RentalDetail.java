@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -20,8 +21,10 @@ import java.time.LocalDateTime;
 @Builder
 public class RentalDetail {
     
+    //pooled sequence instead of IDENTITY so inserts can be batched, one sequence call per 50 ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentalDetailSeq")
+    @SequenceGenerator(name = "rentalDetailSeq", sequenceName = "RentalDetail_SEQ", allocationSize = 50)
     @Column(name = "RentalDetailId")
     private Long rentalDetailId;
     
@@ -43,6 +46,12 @@ public class RentalDetail {
     @UpdateTimestamp
     @Column(name = "ModifiedDate", nullable = false)
     private LocalDateTime modifiedDate;
+
+    //optimistic lock, RentalDetailRepository.markReturned bumps it as well
+    @Version
+    @Column(name = "Version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
     
     public void returnMovie() {
         if (dateReturned == null) {
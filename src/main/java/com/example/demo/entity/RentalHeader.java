@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -22,8 +23,10 @@ import java.util.List;
 @Builder
 public class RentalHeader {
     
+    //pooled sequence instead of IDENTITY so inserts can be batched, one sequence call per 50 ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentalHeaderSeq")
+    @SequenceGenerator(name = "rentalHeaderSeq", sequenceName = "RentalHeader_SEQ", allocationSize = 50)
     @Column(name = "RentalID")
     private Long rentalId;
     
@@ -41,6 +44,12 @@ public class RentalHeader {
     @UpdateTimestamp
     @Column(name = "ModifiedDate", nullable = false)
     private LocalDateTime modifiedDate;
+
+    //optimistic lock, RentalHeaderRepository.touchModifiedDate bumps it as well
+    @Version
+    @Column(name = "Version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
     
     @OneToMany(mappedBy = "rentalHeader", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
@@ -0,0 +1,67 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//durable record of an accepted asynchronous rental, the queue only carries its id
+@Entity
+@Table(name = "RentalRequest", indexes = @Index(name = "IX_RentalRequest_Status", columnList = "Status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RentalRequest {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentalRequestSeq")
+    @SequenceGenerator(name = "rentalRequestSeq", sequenceName = "RentalRequest_SEQ", allocationSize = 50)
+    @Column(name = "RentalRequestID")
+    private Long rentalRequestId;
+    
+    @Column(name = "CustomerID", nullable = false)
+    private Long customerId;
+    
+    @Convert(converter = MovieIdListConverter.class)
+    @Column(name = "MovieIDs", nullable = false, length = 4000)
+    private List<Long> movieIds;
+    
+    @Column(name = "DateRented")
+    private LocalDate dateRented;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "Status", nullable = false, length = 20)
+    @Builder.Default
+    private RentalRequestStatus status = RentalRequestStatus.CREATED;
+    
+    @Column(name = "RentalID")
+    private Long rentalId;
+    
+    @Column(name = "ErrorMessage", length = 1000)
+    private String errorMessage;
+    
+    //node working on the request while it is PROCESSING and when it took it, complete and fail
+    //only apply for the same claim
+    @Column(name = "ClaimedBy", length = 100)
+    private String claimedBy;
+    
+    @Column(name = "ClaimedAt")
+    private LocalDateTime claimedAt;
+    
+    @CreationTimestamp
+    @Column(name = "CreatedDate", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+    
+    @UpdateTimestamp
+    @Column(name = "ModifiedDate", nullable = false)
+    private LocalDateTime modifiedDate;
+}
@@ -0,0 +1,9 @@
+package com.example.demo.entity;
+
+//lifecycle of an asynchronous rental request: CREATED -> PROCESSING -> COMPLETED or FAILED
+public enum RentalRequestStatus {
+    CREATED,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,56 @@
+package com.example.demo.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+//business counters next to the technical timers, exported as rentals_*_total
+@Component
+public class RentalMetrics {
+
+    private final Counter rentalsCreated;
+    private final Counter copiesReturned;
+    private final Counter outOfStockRejections;
+
+    public RentalMetrics(MeterRegistry meterRegistry) {
+        this.rentalsCreated = Counter.builder("rentals.created")
+                .description("Rentals created, single and batch")
+                .register(meterRegistry);
+        this.copiesReturned = Counter.builder("rentals.returned")
+                .description("Rented copies returned, single and bulk")
+                .register(meterRegistry);
+        this.outOfStockRejections = Counter.builder("rentals.out.of.stock")
+                .description("Titles rejected at checkout because no copy was left")
+                .register(meterRegistry);
+    }
+
+    //counted once the transaction commits, so a rolled back attempt or an optimistic lock retry is
+    //not counted; outside a transaction the count is taken right away
+    public void rentalsCreated(int rentals) {
+        afterCommit(() -> rentalsCreated.increment(rentals));
+    }
+
+    public void copiesReturned(int copies) {
+        afterCommit(() -> copiesReturned.increment(copies));
+    }
+
+    public void outOfStock(int titles) {
+        outOfStockRejections.increment(titles);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
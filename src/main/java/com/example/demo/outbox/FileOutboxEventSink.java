@@ -0,0 +1,44 @@
+package com.example.demo.outbox;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+//appends one JSON message per line, a local change feed for development and testing
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file", matchIfMissing = true)
+@Slf4j
+public class FileOutboxEventSink implements OutboxEventSink {
+
+    private final Path path;
+    private final JsonMapper jsonMapper;
+
+    public FileOutboxEventSink(@Value("${app.outbox.file.path:outbox-events.ndjson}") Path path,
+                               JsonMapper jsonMapper) {
+        this.path = path;
+        this.jsonMapper = jsonMapper;
+        log.info("Outbox events are appended to {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxMessage message : messages) {
+                writer.write(jsonMapper.writeValueAsString(message));
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.outbox;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+//keeps relayed messages in a local queue for tests and in-process consumers
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "memory")
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+
+    private final BlockingQueue<OutboxMessage> messages = new LinkedBlockingQueue<>();
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        messages.addAll(batch);
+    }
+
+    public BlockingQueue<OutboxMessage> getMessages() {
+        return messages;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.outbox;
+
+import java.util.List;
+
+//where relayed events go; a batch counts as delivered once publish returns, if it throws the same
+//events are offered again on the next poll, so delivery is at least once and in outbox order
+public interface OutboxEventSink {
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
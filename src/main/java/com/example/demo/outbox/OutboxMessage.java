@@ -0,0 +1,21 @@
+package com.example.demo.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//what a sink receives, the payload is the JSON written with the event;
+//outboxEventId is increasing per aggregate and lets consumers drop redeliveries
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+    private Long outboxEventId;
+    private String aggregateType;
+    private Long aggregateId;
+    private String eventType;
+    private String payload;
+    private LocalDateTime createdDate;
+}
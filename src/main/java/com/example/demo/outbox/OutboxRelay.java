@@ -0,0 +1,103 @@
+package com.example.demo.outbox;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.JobWatermark;
+import com.example.demo.entity.OutboxEvent;
+import com.example.demo.repository.JobWatermarkRepository;
+import com.example.demo.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+//drains the outbox in id order: read a batch, hand it to the sink, delete it, all in one transaction;
+//a failed publish rolls back and the same batch is offered again on the next poll
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    static final String JOB_NAME = "OUTBOX_RELAY";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JobWatermarkRepository jobWatermarkRepository;
+    private final OutboxEventSink outboxEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter published;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       JobWatermarkRepository jobWatermarkRepository,
+                       OutboxEventSink outboxEventSink,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jobWatermarkRepository = jobWatermarkRepository;
+        this.outboxEventSink = outboxEventSink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.published = Counter.builder("outbox.events.published")
+                .description("Outbox events handed to the sink")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT1S}")
+    public void relay() {
+        try {
+            //keep going while batches come back full, then wait for the next poll
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying on the next poll: {}", e.getMessage());
+        }
+    }
+
+    int relayBatch() {
+        //one relay at a time across instances, the others wait here and then find the batch gone
+        if (jobWatermarkRepository.findForUpdate(JOB_NAME).isEmpty()) {
+            jobWatermarkRepository.saveAndFlush(JobWatermark.builder().jobName(JOB_NAME).build());
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findBatch(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<OutboxMessage> messages = events.stream()
+                .map(this::toMessage)
+                .collect(Collectors.toList());
+        try {
+            outboxEventSink.publish(messages);
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox sink rejected " + messages.size() + " events", e);
+        }
+
+        outboxEventRepository.deleteByIds(messages.stream()
+                .map(OutboxMessage::getOutboxEventId)
+                .collect(Collectors.toList()));
+        published.increment(messages.size());
+        log.debug("Relayed {} outbox events up to ID: {}", messages.size(),
+                messages.get(messages.size() - 1).getOutboxEventId());
+        return messages.size();
+    }
+
+    private OutboxMessage toMessage(OutboxEvent event) {
+        return new OutboxMessage(
+            event.getOutboxEventId(),
+            event.getAggregateType(),
+            event.getAggregateId(),
+            event.getEventType().name(),
+            event.getPayload(),
+            event.getCreatedDate()
+        );
+    }
+}
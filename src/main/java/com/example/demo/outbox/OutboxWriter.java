@@ -0,0 +1,42 @@
+package com.example.demo.outbox;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.OutboxEvent;
+import com.example.demo.entity.OutboxEventType;
+import com.example.demo.repository.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.json.JsonMapper;
+
+//adds an event to the outbox as part of the caller's transaction, it is relayed only if that commits
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    static final String RENTAL = "Rental";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JsonMapper jsonMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rentalCreated(RentalEvent event) {
+        append(RENTAL, event.getRentalId(), OutboxEventType.RENTAL_CREATED, event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rentalReturned(RentalEvent event) {
+        append(RENTAL, event.getRentalId(), OutboxEventType.RENTAL_RETURNED, event);
+    }
+
+    private void append(String aggregateType, Long aggregateId, OutboxEventType eventType, Object payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(jsonMapper.writeValueAsString(payload))
+                .build());
+    }
+}
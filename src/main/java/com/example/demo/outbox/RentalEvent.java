@@ -0,0 +1,28 @@
+package com.example.demo.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+//payload of RENTAL_CREATED (date is dateRented, every detail of the rental) and
+//RENTAL_RETURNED (date is dateReturned, only the details handed back)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalEvent {
+    private Long rentalId;
+    private Long customerId;
+    private LocalDate date;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long rentalDetailId;
+        private Long movieId;
+    }
+}
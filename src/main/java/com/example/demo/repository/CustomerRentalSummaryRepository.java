@@ -0,0 +1,61 @@
+package com.example.demo.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.response.CustomerRentalSummaryDTO;
+import com.example.demo.entity.CustomerRentalSummary;
+
+@Repository
+public interface CustomerRentalSummaryRepository extends JpaRepository<CustomerRentalSummary, Long> {
+
+        @Query("SELECT new com.example.demo.dto.response.CustomerRentalSummaryDTO(" +
+               "s.customerId, s.customerName, s.totalRentals, s.outstandingTitles, s.lastRentalDate, s.modifiedDate) " +
+               "FROM CustomerRentalSummary s " +
+               "WHERE s.customerId = :customerId")
+        Optional<CustomerRentalSummaryDTO> findSummaryById(@Param("customerId") Long customerId);
+
+        @Query(value = "SELECT new com.example.demo.dto.response.CustomerRentalSummaryDTO(" +
+               "s.customerId, s.customerName, s.totalRentals, s.outstandingTitles, s.lastRentalDate, s.modifiedDate) " +
+               "FROM CustomerRentalSummary s",
+               countQuery = "SELECT COUNT(s) FROM CustomerRentalSummary s")
+        Page<CustomerRentalSummaryDTO> findAllSummaries(Pageable pageable);
+
+        //the counters are moved in place by the database, concurrent rentals never lose an update
+        @Transactional
+        @Modifying
+        @Query("UPDATE CustomerRentalSummary s " +
+               "SET s.totalRentals = s.totalRentals + 1, " +
+               "s.outstandingTitles = s.outstandingTitles + :titles, " +
+               "s.lastRentalDate = CASE WHEN s.lastRentalDate IS NULL OR s.lastRentalDate < :dateRented " +
+               "THEN :dateRented ELSE s.lastRentalDate END, " +
+               "s.modifiedDate = CURRENT_TIMESTAMP " +
+               "WHERE s.customerId = :customerId")
+        int recordRental(@Param("customerId") Long customerId,
+                         @Param("titles") long titles,
+                         @Param("dateRented") LocalDate dateRented);
+
+        @Transactional
+        @Modifying
+        @Query("UPDATE CustomerRentalSummary s " +
+               "SET s.outstandingTitles = s.outstandingTitles - :titles, " +
+               "s.modifiedDate = CURRENT_TIMESTAMP " +
+               "WHERE s.customerId = :customerId AND s.outstandingTitles >= :titles")
+        int recordReturns(@Param("customerId") Long customerId, @Param("titles") long titles);
+
+        @Transactional
+        @Modifying
+        @Query("UPDATE CustomerRentalSummary s SET s.customerName = :customerName, s.modifiedDate = CURRENT_TIMESTAMP " +
+               "WHERE s.customerId = :customerId")
+        int rename(@Param("customerId") Long customerId, @Param("customerName") String customerName);
+
+}
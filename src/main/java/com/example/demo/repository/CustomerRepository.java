@@ -1,6 +1,7 @@
 package com.example.demo.repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,15 +10,41 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.response.CustomerListDTO;
 import com.example.demo.entity.Customer;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
-        @Query("SELECT c FROM Customer c")
-        Page<Customer> findAllCustomers(Pageable pageable);
+        //read paths project straight into CustomerListDTO, no managed Customer is created
+        @Query(value = "SELECT new com.example.demo.dto.response.CustomerListDTO(" +
+               "c.customerId, c.customerName, c.isSubscribedToNewsletter, c.birthdate, c.createdDate, c.modifiedDate) " +
+               "FROM Customer c",
+               countQuery = "SELECT COUNT(c) FROM Customer c")
+        Page<CustomerListDTO> findAllCustomers(Pageable pageable);
 
-        @Query("SELECT c FROM Customer c WHERE c.customerId = :customerId")
-        Optional<Customer> findCustomerById(@Param("customerId") Long customerId);
+        //keyset paging in the default (customerName, customerId) order, no count query
+        @Query("SELECT new com.example.demo.dto.response.CustomerListDTO(" +
+               "c.customerId, c.customerName, c.isSubscribedToNewsletter, c.birthdate, c.createdDate, c.modifiedDate) " +
+               "FROM Customer c " +
+               "ORDER BY c.customerName, c.customerId")
+        List<CustomerListDTO> findFirstCustomers(Pageable pageable);
+
+        @Query("SELECT new com.example.demo.dto.response.CustomerListDTO(" +
+               "c.customerId, c.customerName, c.isSubscribedToNewsletter, c.birthdate, c.createdDate, c.modifiedDate) " +
+               "FROM Customer c " +
+               "WHERE c.customerName > :customerName " +
+               "OR (c.customerName = :customerName AND c.customerId > :customerId) " +
+               "ORDER BY c.customerName, c.customerId")
+        List<CustomerListDTO> findCustomersAfter(@Param("customerName") String customerName,
+                                          @Param("customerId") Long customerId,
+                                          Pageable pageable);
+
+        //loader of the customer lookup cache, misses of a whole batch in one query
+        @Query("SELECT new com.example.demo.dto.response.CustomerListDTO(" +
+               "c.customerId, c.customerName, c.isSubscribedToNewsletter, c.birthdate, c.createdDate, c.modifiedDate) " +
+               "FROM Customer c " +
+               "WHERE c.customerId IN :customerIds")
+        List<CustomerListDTO> findCustomersByIdIn(@Param("customerIds") Collection<Long> customerIds);
 
 }
\ No newline at end of file
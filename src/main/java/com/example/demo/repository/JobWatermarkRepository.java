@@ -0,0 +1,23 @@
+package com.example.demo.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.JobWatermark;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+        //holds the row until commit, a second instance running the same job waits and then sees the new watermark
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT w FROM JobWatermark w WHERE w.jobName = :jobName")
+        Optional<JobWatermark> findForUpdate(@Param("jobName") String jobName);
+
+}
@@ -1,10 +1,83 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.cache.MovieSearchDocument;
 import com.example.demo.entity.Movie;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
 
-}
\ No newline at end of file
+    //resolves a whole basket of movies (and their genres) in a single round trip
+    @Query("SELECT m FROM Movie m JOIN FETCH m.genre WHERE m.movieId IN :movieIds")
+    List<Movie> findAllByIdWithGenre(@Param("movieIds") Collection<Long> movieIds);
+
+    //search index source, read as flat rows so a full rebuild hydrates no entities
+    @Query("SELECT new com.example.demo.cache.MovieSearchDocument(m.movieId, m.movieName, g.genreName, " +
+           "m.numberInStock, m.numberAvailable, m.modifiedDate) " +
+           "FROM Movie m JOIN m.genre g")
+    List<MovieSearchDocument> findSearchDocuments();
+
+    @Query("SELECT new com.example.demo.cache.MovieSearchDocument(m.movieId, m.movieName, g.genreName, " +
+           "m.numberInStock, m.numberAvailable, m.modifiedDate) " +
+           "FROM Movie m JOIN m.genre g WHERE m.movieId IN :movieIds")
+    List<MovieSearchDocument> findSearchDocumentsByIdIn(@Param("movieIds") Collection<Long> movieIds);
+
+    //stock ledger reconciliation: stock, stored availability and copies still out, per title
+    interface MovieStockRow {
+        Long getMovieId();
+        Integer getNumberInStock();
+        Integer getNumberAvailable();
+        Long getOutstanding();
+    }
+
+    @Query("SELECT m.movieId AS movieId, m.numberInStock AS numberInStock, m.numberAvailable AS numberAvailable, " +
+           "(SELECT COUNT(rd) FROM RentalDetail rd WHERE rd.movie = m AND rd.dateReturned IS NULL) AS outstanding " +
+           "FROM Movie m")
+    List<MovieStockRow> findStockRows();
+
+    @Query("SELECT m.movieId AS movieId, m.numberInStock AS numberInStock, m.numberAvailable AS numberAvailable, " +
+           "(SELECT COUNT(rd) FROM RentalDetail rd WHERE rd.movie = m AND rd.dateReturned IS NULL) AS outstanding " +
+           "FROM Movie m WHERE m.movieId = :movieId")
+    Optional<MovieStockRow> findStockRow(@Param("movieId") Long movieId);
+
+    //atomic checkout, returns 0 when there are not enough copies left
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Movie m SET m.numberAvailable = m.numberAvailable - :copies, " +
+           "m.modifiedDate = CURRENT_TIMESTAMP, m.version = m.version + 1 " +
+           "WHERE m.movieId = :movieId AND m.numberAvailable >= :copies")
+    int decrementAvailable(@Param("movieId") Long movieId, @Param("copies") int copies);
+
+    //atomic return, returns 0 when it would push availability above the stock
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Movie m SET m.numberAvailable = m.numberAvailable + :copies, " +
+           "m.modifiedDate = CURRENT_TIMESTAMP, m.version = m.version + 1 " +
+           "WHERE m.movieId = :movieId AND m.numberAvailable + :copies <= m.numberInStock")
+    int incrementAvailable(@Param("movieId") Long movieId, @Param("copies") int copies);
+
+    //bulk return, one statement puts back every copy of these rental details, per title; a title
+    //it would push above the stock is skipped, so the count falls short of the titles returned
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Movie m SET m.numberAvailable = m.numberAvailable + " +
+           "(SELECT COUNT(rd) FROM RentalDetail rd WHERE rd.movie = m AND rd.rentalDetailId IN :rentalDetailIds), " +
+           "m.modifiedDate = CURRENT_TIMESTAMP, m.version = m.version + 1 " +
+           "WHERE m.movieId IN " +
+           "(SELECT rd.movie.movieId FROM RentalDetail rd WHERE rd.rentalDetailId IN :rentalDetailIds) " +
+           "AND m.numberAvailable + " +
+           "(SELECT COUNT(rd) FROM RentalDetail rd WHERE rd.movie = m AND rd.rentalDetailId IN :rentalDetailIds) " +
+           "<= m.numberInStock")
+    int incrementAvailableForRentalDetails(@Param("rentalDetailIds") Collection<Long> rentalDetailIds);
+
+}
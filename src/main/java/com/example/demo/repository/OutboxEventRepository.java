@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+        //oldest first, the table only holds events not yet relayed
+        @Query("SELECT e FROM OutboxEvent e ORDER BY e.outboxEventId")
+        List<OutboxEvent> findBatch(Pageable pageable);
+
+        @Transactional
+        @Modifying
+        @Query("DELETE FROM OutboxEvent e WHERE e.outboxEventId IN :outboxEventIds")
+        int deleteByIds(@Param("outboxEventIds") Collection<Long> outboxEventIds);
+
+}
@@ -0,0 +1,64 @@
+package com.example.demo.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.OverdueRental;
+
+@Repository
+public interface OverdueRentalRepository extends JpaRepository<OverdueRental, Long> {
+
+       interface OverdueRentalRow {
+              Long getRentalDetailId();
+              Long getRentalId();
+              Long getCustomerId();
+              String getCustomerName();
+              Long getMovieId();
+              LocalDate getDateRented();
+              LocalDateTime getDetectedDate();
+       }
+
+       //copies returned since the last scan are filtered out here and swept by the next scan
+       @Query(value = "SELECT o.rentalDetailId AS rentalDetailId, o.rentalId AS rentalId, o.customerId AS customerId, " +
+              "c.customerName AS customerName, o.movieId AS movieId, o.dateRented AS dateRented, " +
+              "o.detectedDate AS detectedDate " +
+              "FROM OverdueRental o " +
+              "JOIN Customer c ON c.customerId = o.customerId " +
+              "JOIN RentalDetail rd ON rd.rentalDetailId = o.rentalDetailId " +
+              "WHERE rd.dateReturned IS NULL",
+              countQuery = "SELECT COUNT(o) FROM OverdueRental o " +
+              "JOIN RentalDetail rd ON rd.rentalDetailId = o.rentalDetailId " +
+              "WHERE rd.dateReturned IS NULL")
+       Page<OverdueRentalRow> findOutstanding(Pageable pageable);
+
+       //one set-based pass over every open copy rented on or before the cutoff, driven by the
+       //filtered index on outstanding rental details (see V5__overdue_rentals.sql), so back-dated
+       //rentals are found without tracking which ids the previous run saw
+       @Transactional
+       @Modifying
+       @Query("INSERT INTO OverdueRental (rentalDetailId, rentalId, customerId, movieId, dateRented, detectedDate) " +
+              "SELECT rd.rentalDetailId, rh.rentalId, rh.customer.customerId, rd.movie.movieId, rh.dateRented, " +
+              "CURRENT_TIMESTAMP " +
+              "FROM RentalDetail rd JOIN rd.rentalHeader rh " +
+              "WHERE rd.dateReturned IS NULL " +
+              "AND rh.dateRented <= :cutoff " +
+              "AND NOT EXISTS (SELECT 1 FROM OverdueRental o WHERE o.rentalDetailId = rd.rentalDetailId)")
+       int insertOverdue(@Param("cutoff") LocalDate cutoff);
+
+       //cost follows the size of this table, each row is one primary key lookup in RentalDetail
+       @Transactional
+       @Modifying
+       @Query("DELETE FROM OverdueRental o WHERE EXISTS (" +
+              "SELECT 1 FROM RentalDetail rd " +
+              "WHERE rd.rentalDetailId = o.rentalDetailId AND rd.dateReturned IS NOT NULL)")
+       int deleteReturned();
+}
@@ -0,0 +1,45 @@
+package com.example.demo.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.RentalDetail;
+
+@Repository
+public interface RentalDetailRepository extends JpaRepository<RentalDetail, Long> {
+
+    //ids only, oldest rental first so the longest outstanding copy is closed first
+    interface OutstandingRentalDetail {
+        Long getRentalDetailId();
+        Long getRentalId();
+        Long getMovieId();
+    }
+
+    @Query("SELECT rd.rentalDetailId AS rentalDetailId, rh.rentalId AS rentalId, rd.movie.movieId AS movieId " +
+           "FROM RentalDetail rd JOIN rd.rentalHeader rh " +
+           "WHERE rh.customer.customerId = :customerId " +
+           "AND rd.movie.movieId IN :movieIds " +
+           "AND rd.dateReturned IS NULL " +
+           "AND (:dateRented IS NULL OR rh.dateRented = :dateRented) " +
+           "ORDER BY rh.dateRented, rd.rentalDetailId")
+    List<OutstandingRentalDetail> findOutstanding(@Param("customerId") Long customerId,
+                                                  @Param("movieIds") Collection<Long> movieIds,
+                                                  @Param("dateRented") LocalDate dateRented);
+
+    //set-based return, rows returned in the meantime are skipped so the caller can compare counts
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RentalDetail rd SET rd.dateReturned = :dateReturned, " +
+           "rd.modifiedDate = CURRENT_TIMESTAMP, rd.version = rd.version + 1 " +
+           "WHERE rd.rentalDetailId IN :rentalDetailIds AND rd.dateReturned IS NULL")
+    int markReturned(@Param("rentalDetailIds") Collection<Long> rentalDetailIds,
+                     @Param("dateReturned") LocalDate dateReturned);
+}
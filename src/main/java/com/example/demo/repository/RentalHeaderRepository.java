@@ -3,29 +3,101 @@ package com.example.demo.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.entity.RentalHeader;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RentalHeaderRepository extends JpaRepository<RentalHeader, Long> {
 
-       @Query("SELECT DISTINCT rh FROM RentalHeader rh " +
-              "LEFT JOIN FETCH rh.customer " +
-              "LEFT JOIN FETCH rh.rentalDetails rd " +
-              "LEFT JOIN FETCH rd.movie m " +
-              "LEFT JOIN FETCH m.genre")
-       Page<RentalHeader> findAllWithDetails(Pageable pageable);
+       //phase one: page and sort over the header ids only, in the database
+       @Query(value = "SELECT rh.rentalId FROM RentalHeader rh",
+              countQuery = "SELECT COUNT(rh) FROM RentalHeader rh")
+       Page<Long> findRentalIds(Pageable pageable);
+
+       //keyset paging in the default (dateRented, rentalId) order, no count query
+       @Query("SELECT rh.rentalId FROM RentalHeader rh " +
+              "ORDER BY rh.dateRented, rh.rentalId")
+       List<Long> findFirstRentalIds(Pageable pageable);
+
+       @Query("SELECT rh.rentalId FROM RentalHeader rh " +
+              "WHERE rh.dateRented > :dateRented " +
+              "OR (rh.dateRented = :dateRented AND rh.rentalId > :rentalId) " +
+              "ORDER BY rh.dateRented, rh.rentalId")
+       List<Long> findRentalIdsAfter(@Param("dateRented") LocalDate dateRented,
+                                     @Param("rentalId") Long rentalId,
+                                     Pageable pageable);
 
+       //the customer is not joined, the eager association resolves from the second-level cache
        @Query("SELECT DISTINCT rh FROM RentalHeader rh " +
-              "LEFT JOIN FETCH rh.customer " +
-              "LEFT JOIN FETCH rh.rentalDetails rd " +
-              "LEFT JOIN FETCH rd.movie m " +
-              "LEFT JOIN FETCH m.genre " +
+              "LEFT JOIN FETCH rh.rentalDetails " +
               "WHERE rh.rentalId = :rentalId")
        Optional<RentalHeader> findByIdWithDetails(@Param("rentalId") Long rentalId);
-}
\ No newline at end of file
+
+       //one flat row per rental detail (or per rental without details), read as a tuple
+       //instead of hydrating RentalHeader, RentalDetail and Customer entities
+       interface RentalRow {
+              Long getRentalId();
+              String getCustomerName();
+              LocalDate getDateRented();
+              Long getRentalDetailId();
+              Long getMovieId();
+              LocalDate getDateReturned();
+              LocalDateTime getModifiedDate();
+              LocalDateTime getCustomerModifiedDate();
+
+              //what the representation was built from: the header (touched on every return) and the customer name
+              default LocalDateTime getLastModified() {
+                     return getCustomerModifiedDate().isAfter(getModifiedDate())
+                            ? getCustomerModifiedDate()
+                            : getModifiedDate();
+              }
+       }
+
+       //phase two: flat rows for exactly one page of ids, movie titles
+       //are resolved through MovieCatalogueCache rather than joined here
+       @Query("SELECT rh.rentalId AS rentalId, c.customerName AS customerName, rh.dateRented AS dateRented, " +
+              "rd.rentalDetailId AS rentalDetailId, rd.movie.movieId AS movieId, rd.dateReturned AS dateReturned, " +
+              "rh.modifiedDate AS modifiedDate, c.modifiedDate AS customerModifiedDate " +
+              "FROM RentalHeader rh JOIN rh.customer c LEFT JOIN rh.rentalDetails rd " +
+              "WHERE rh.rentalId IN :rentalIds " +
+              "ORDER BY rh.rentalId, rd.rentalDetailId")
+       List<RentalRow> findRentalRowsByIdIn(@Param("rentalIds") Collection<Long> rentalIds);
+
+       //forward-only read, rows of one rental are adjacent; needs an open transaction and must be closed
+       @QueryHints({
+              @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+              @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+       })
+       @Query("SELECT rh.rentalId AS rentalId, c.customerName AS customerName, rh.dateRented AS dateRented, " +
+              "rd.rentalDetailId AS rentalDetailId, rd.movie.movieId AS movieId, rd.dateReturned AS dateReturned, " +
+              "rh.modifiedDate AS modifiedDate, c.modifiedDate AS customerModifiedDate " +
+              "FROM RentalHeader rh JOIN rh.customer c LEFT JOIN rh.rentalDetails rd " +
+              "ORDER BY rh.rentalId, rd.rentalDetailId")
+       Stream<RentalRow> streamRentalExportRows();
+
+       //stamped by the caller from the application clock, like @UpdateTimestamp on the entity;
+       //the database clock may disagree and move a rental's version backwards
+       @Transactional
+       @Modifying(flushAutomatically = true)
+       @Query("UPDATE RentalHeader rh SET rh.modifiedDate = :modifiedDate, rh.version = rh.version + 1 " +
+              "WHERE rh.rentalId IN :rentalIds")
+       int touchModifiedDate(@Param("rentalIds") Collection<Long> rentalIds,
+                             @Param("modifiedDate") LocalDateTime modifiedDate);
+}
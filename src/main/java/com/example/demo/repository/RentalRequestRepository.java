@@ -0,0 +1,63 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.RentalRequest;
+import com.example.demo.entity.RentalRequestStatus;
+
+@Repository
+public interface RentalRequestRepository extends JpaRepository<RentalRequest, Long> {
+
+    @Query("SELECT r.rentalRequestId FROM RentalRequest r WHERE r.status IN :statuses ORDER BY r.rentalRequestId")
+    List<Long> findIdsByStatusIn(@Param("statuses") Collection<RentalRequestStatus> statuses);
+
+    //compare-and-set on the status, returns 0 when another worker got there first
+    @Transactional
+    @Modifying
+    @Query("UPDATE RentalRequest r SET r.status = com.example.demo.entity.RentalRequestStatus.PROCESSING, " +
+           "r.claimedBy = :claimedBy, r.claimedAt = :claimedAt, r.modifiedDate = CURRENT_TIMESTAMP " +
+           "WHERE r.rentalRequestId = :rentalRequestId AND r.status = com.example.demo.entity.RentalRequestStatus.CREATED")
+    int claim(@Param("rentalRequestId") Long rentalRequestId,
+              @Param("claimedBy") String claimedBy,
+              @Param("claimedAt") LocalDateTime claimedAt);
+
+    //hands back claims this node made before it started, and claims of any node older than staleBefore;
+    //a live node's current claims are left alone
+    @Transactional
+    @Modifying
+    @Query("UPDATE RentalRequest r SET r.status = com.example.demo.entity.RentalRequestStatus.CREATED, " +
+           "r.claimedBy = NULL, r.claimedAt = NULL, r.modifiedDate = CURRENT_TIMESTAMP " +
+           "WHERE r.status = com.example.demo.entity.RentalRequestStatus.PROCESSING " +
+           "AND (r.claimedAt IS NULL OR r.claimedAt < :staleBefore " +
+           "OR (r.claimedBy = :claimedBy AND r.claimedAt < :startedAt))")
+    int releaseAbandoned(@Param("claimedBy") String claimedBy,
+                         @Param("startedAt") LocalDateTime startedAt,
+                         @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RentalRequest r SET r.status = com.example.demo.entity.RentalRequestStatus.COMPLETED, " +
+           "r.rentalId = :rentalId, r.modifiedDate = CURRENT_TIMESTAMP " +
+           "WHERE r.rentalRequestId = :rentalRequestId AND r.status = com.example.demo.entity.RentalRequestStatus.PROCESSING " +
+           "AND r.claimedBy = :claimedBy AND r.claimedAt = :claimedAt")
+    int complete(@Param("rentalRequestId") Long rentalRequestId, @Param("rentalId") Long rentalId,
+                 @Param("claimedBy") String claimedBy, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RentalRequest r SET r.status = com.example.demo.entity.RentalRequestStatus.FAILED, " +
+           "r.errorMessage = :errorMessage, r.modifiedDate = CURRENT_TIMESTAMP " +
+           "WHERE r.rentalRequestId = :rentalRequestId AND r.status = com.example.demo.entity.RentalRequestStatus.PROCESSING " +
+           "AND r.claimedBy = :claimedBy AND r.claimedAt = :claimedAt")
+    int fail(@Param("rentalRequestId") Long rentalRequestId, @Param("errorMessage") String errorMessage,
+             @Param("claimedBy") String claimedBy, @Param("claimedAt") LocalDateTime claimedAt);
+}
@@ -0,0 +1,94 @@
+package com.example.demo.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+//runs outside @Transactional, so every attempt is a fresh transaction that re-reads the rows it lost on;
+//backoff is exponential with full jitter, so colliding callers do not collide again on the retry
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ConflictRetryAspect {
+
+    static final String CONFLICTS = "optimistic.lock.conflicts";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public ConflictRetryAspect(MeterRegistry meterRegistry,
+                               @Value("${app.retry.conflict.max-attempts:3}") int maxAttempts,
+                               @Value("${app.retry.conflict.initial-backoff:PT0.01S}") Duration initialBackoff,
+                               @Value("${app.retry.conflict.max-backoff:PT0.2S}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Around("@annotation(com.example.demo.retry.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        //inside a caller's transaction the retry would reuse the failed transaction, the caller owns the retry
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts(operation, "exhausted").increment();
+                    log.warn("{} lost an optimistic lock {} times, giving up", operation, attempt);
+                    throw e;
+                }
+                conflicts(operation, "retried").increment();
+                log.debug("{} lost an optimistic lock on attempt {}, retrying", operation, attempt);
+                if (!sleep(backoff(attempt))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    //full jitter: uniform between zero and the capped exponential step
+    long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter conflicts(String operation, String outcome) {
+        return Counter.builder(CONFLICTS)
+                .description("Optimistic lock conflicts of @RetryOnConflict methods, by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
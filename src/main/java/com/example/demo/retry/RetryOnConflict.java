@@ -0,0 +1,15 @@
+package com.example.demo.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//re-runs the whole transactional method when it loses an optimistic lock, see ConflictRetryAspect;
+//only for methods that start their own transaction and have no side effects outside it
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -4,13 +4,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.example.demo.dto.request.CustomerUpdateDTO;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.CustomerListDTO;
+import com.example.demo.dto.response.CustomerRentalSummaryDTO;
 import com.example.demo.entity.Customer;
 
 public interface CustomerService {
     Page<CustomerListDTO> getAllCustomers(Pageable pageable);
+    CursorPageResponse<CustomerListDTO> getCustomersAfter(String cursor, int size);
     CustomerListDTO getCustomerById(Long customerId);
     CustomerListDTO createCustomer(Customer customer);
     CustomerListDTO updateCustomer(Long customerId, CustomerUpdateDTO customer);
+    CustomerRentalSummaryDTO getRentalSummary(Long customerId);
+    Page<CustomerRentalSummaryDTO> getRentalSummaries(Pageable pageable);
 
 }
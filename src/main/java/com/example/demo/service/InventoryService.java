@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+//availability of each title; every call runs inside the rental transaction and counts only if it commits
+public interface InventoryService {
+    //false when fewer than copies are left
+    boolean reserve(Long movieId, int copies);
+    //hands back copies reserved earlier in the same transaction that the rental will not use
+    void cancelReservation(Long movieId, int copies);
+    //false when the copies would push availability above the stock
+    boolean release(Long movieId, int copies);
+    //rental details just marked returned, with their copies per title;
+    //false when a title would go above its stock, the caller must roll the return back
+    boolean releaseReturned(Collection<Long> rentalDetailIds, Map<Long, Integer> copiesByMovie);
+}
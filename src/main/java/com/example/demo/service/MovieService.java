@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import com.example.demo.dto.response.MovieSearchResultDTO;
+
+public interface MovieService {
+    List<MovieSearchResultDTO> searchMovies(String query, String genre, Boolean available, int limit);
+}
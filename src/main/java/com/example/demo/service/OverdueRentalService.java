@@ -0,0 +1,11 @@
+package com.example.demo.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.example.demo.dto.response.OverdueRentalDTO;
+
+public interface OverdueRentalService {
+    int scanOverdueRentals();
+    Page<OverdueRentalDTO> getOverdueRentals(Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.example.demo.dto.request.RentalExportFormat;
+
+public interface RentalExportService {
+    void exportRentals(RentalExportFormat format, OutputStream outputStream) throws IOException;
+}
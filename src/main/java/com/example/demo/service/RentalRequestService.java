@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.response.RentalRequestStatusDTO;
+
+public interface RentalRequestService {
+    RentalRequestStatusDTO submitRental(RentalRequestDTO rentalRequest);
+    RentalRequestStatusDTO getRentalRequest(Long rentalRequestId);
+}
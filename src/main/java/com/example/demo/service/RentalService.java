@@ -1,14 +1,23 @@
 package com.example.demo.service;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.request.RentalReturnDTO;
+import com.example.demo.dto.response.CursorPageResponse;
+import com.example.demo.dto.response.RentalBatchResponseDTO;
 import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.dto.response.RentalReturnResultDTO;
 
 public interface RentalService {
     Page<RentalListDTO> getAllRentals(Pageable pageable);
+    CursorPageResponse<RentalListDTO> getRentalsAfter(String cursor, int size);
     RentalListDTO getRentalById(Long id);
     RentalListDTO createRental(RentalRequestDTO rentalRequest);
+    RentalBatchResponseDTO createRentals(List<RentalRequestDTO> rentalRequests);
     RentalListDTO returnRental(Long rentalId, Long rentalDetailId);
+    RentalReturnResultDTO returnRentals(RentalReturnDTO rentalReturn);
 }
\ No newline at end of file
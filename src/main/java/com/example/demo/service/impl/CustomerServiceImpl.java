@@ -3,49 +3,83 @@ package com.example.demo.service.impl;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.cache.CustomerCache;
+import com.example.demo.cache.RentalReadCache;
 import com.example.demo.dto.request.CustomerUpdateDTO;
+import com.example.demo.dto.request.KeysetCursor;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.CustomerListDTO;
+import com.example.demo.dto.response.CustomerRentalSummaryDTO;
 import com.example.demo.entity.Customer;
+import com.example.demo.entity.CustomerRentalSummary;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.CustomerRentalSummaryRepository;
 import com.example.demo.repository.CustomerRepository;
+import com.example.demo.retry.RetryOnConflict;
 import com.example.demo.service.CustomerService;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Timed("customer.service")
 @RequiredArgsConstructor
 @Slf4j
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerRentalSummaryRepository customerRentalSummaryRepository;
+    private final CustomerCache customerCache;
+    private final RentalReadCache rentalReadCache;
 
     @Override
     @Transactional(readOnly = true)
     public Page<CustomerListDTO> getAllCustomers(Pageable pageable) {
         log.info("Fetching all customers - page: {}, size: {}",
                 pageable.getPageNumber(), pageable.getPageSize());
-        //fetch customers from repository
-        Page<Customer> customersPage = customerRepository.findAllCustomers(pageable);
-        //convert each Customer entity to CustomerListDTO
-        return customersPage.map(this::convertToDTO);
+        //customers are projected into CustomerListDTO by the query itself
+        return customerRepository.findAllCustomers(pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
+    public CursorPageResponse<CustomerListDTO> getCustomersAfter(String cursor, int size) {
+        log.info("Fetching customers after cursor - size: {}", size);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        //read one extra row to know whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<CustomerListDTO> customers = position == null
+                ? customerRepository.findFirstCustomers(limit)
+                : customerRepository.findCustomersAfter(position.getSortKey(), position.getId(), limit);
+
+        boolean hasNext = customers.size() > size;
+        List<CustomerListDTO> content = hasNext ? customers.subList(0, size) : customers;
+
+        String nextCursor = null;
+        if (hasNext) {
+            CustomerListDTO last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCustomerName(), last.getCustomerId()).encode();
+        }
+        return new CursorPageResponse<>(content, size, nextCursor, hasNext);
+    }
+
+    @Override
     public CustomerListDTO getCustomerById(Long customerId) {
         log.info("Fetching customer by ID: {}", customerId);
-        Customer customer = customerRepository.findCustomerById(customerId)
+        //no transaction, a cache hit does not take a connection
+        return customerCache.get(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Customer not found with ID: " + customerId));
-        return convertToDTO(customer);
     }
 
     @Override
@@ -56,11 +90,19 @@ public class CustomerServiceImpl implements CustomerService {
         validateCustomerAge(customer.getBirthdate());
         //name will be converted to uppercase by @PrePersist in entity
         Customer savedCustomer = customerRepository.save(customer);
-        return convertToDTO(savedCustomer);
+        //every customer starts with an empty rental summary row
+        customerRentalSummaryRepository.save(CustomerRentalSummary.builder()
+                .customerId(savedCustomer.getCustomerId())
+                .customerName(savedCustomer.getCustomerName())
+                .build());
+        CustomerListDTO created = convertToDTO(savedCustomer);
+        customerCache.put(created);
+        return created;
     }
 
 @Override
 @Transactional
+@RetryOnConflict
 public CustomerListDTO updateCustomer(Long customerId, CustomerUpdateDTO customerUpdate) {
     log.info("Updating customer ID: {} with partial data", customerId);
     
@@ -75,6 +117,7 @@ public CustomerListDTO updateCustomer(Long customerId, CustomerUpdateDTO custome
                     "Customer not found with ID: " + customerId));
     
     boolean hasChanges = false;
+    boolean nameChanged = false;
     
     //update only provided fields
     if (customerUpdate.getCustomerName() != null && 
@@ -84,6 +127,7 @@ public CustomerListDTO updateCustomer(Long customerId, CustomerUpdateDTO custome
         if (!newName.equals(existingCustomer.getCustomerName())) {
             existingCustomer.setCustomerName(newName);
             hasChanges = true;
+            nameChanged = true;
         }
     }
     
@@ -106,16 +150,42 @@ public CustomerListDTO updateCustomer(Long customerId, CustomerUpdateDTO custome
     
     //only save if there are actual changes
     if (hasChanges) {
-        //modifiedDate will be auto-updated by @UpdateTimestamp
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
+        //modifiedDate is set by @UpdateTimestamp on flush, flushed here so the returned
+        //and cached copy carries it (it is the ETag of the customer resource)
+        Customer updatedCustomer = customerRepository.saveAndFlush(existingCustomer);
+        //keep the copy of the name in the rental summary in step
+        customerRentalSummaryRepository.rename(customerId, updatedCustomer.getCustomerName());
+        if (nameChanged) {
+            //cached rentals carry the customer name
+            rentalReadCache.evictAll();
+        }
         log.info("Customer ID: {} updated successfully", customerId);
-        return convertToDTO(updatedCustomer);
+        CustomerListDTO updated = convertToDTO(updatedCustomer);
+        customerCache.put(updated);
+        return updated;
     } else {
         log.info("Customer ID: {} - no changes detected", customerId);
         return convertToDTO(existingCustomer);
     }
 }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerRentalSummaryDTO getRentalSummary(Long customerId) {
+        log.info("Fetching rental summary for customer ID: {}", customerId);
+        return customerRentalSummaryRepository.findSummaryById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Customer not found with ID: " + customerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CustomerRentalSummaryDTO> getRentalSummaries(Pageable pageable) {
+        log.info("Fetching customer rental summaries - page: {}, size: {}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        return customerRentalSummaryRepository.findAllSummaries(pageable);
+    }
+
     //helper functions
     CustomerListDTO convertToDTO(Customer customer) {
         return new CustomerListDTO(
@@ -0,0 +1,59 @@
+package com.example.demo.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.MoviesChangedEvent;
+import com.example.demo.repository.MovieRepository;
+import com.example.demo.service.InventoryService;
+
+import lombok.RequiredArgsConstructor;
+
+//stock lives in Movie.NumberAvailable, every change is a conditional UPDATE on the title's row
+@Service
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabaseInventoryServiceImpl implements InventoryService {
+
+    private final MovieRepository movieRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public boolean reserve(Long movieId, int copies) {
+        if (movieRepository.decrementAvailable(movieId, copies) == 0) {
+            return false;
+        }
+        //availability changed, the search index reloads this title once the rental commits
+        eventPublisher.publishEvent(MoviesChangedEvent.availability(List.of(movieId)));
+        return true;
+    }
+
+    @Override
+    public void cancelReservation(Long movieId, int copies) {
+        movieRepository.incrementAvailable(movieId, copies);
+    }
+
+    @Override
+    public boolean release(Long movieId, int copies) {
+        if (movieRepository.incrementAvailable(movieId, copies) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(MoviesChangedEvent.availability(List.of(movieId)));
+        return true;
+    }
+
+    //one statement for every title, whatever the number of copies; one row per title or nothing counts
+    @Override
+    public boolean releaseReturned(Collection<Long> rentalDetailIds, Map<Long, Integer> copiesByMovie) {
+        if (movieRepository.incrementAvailableForRentalDetails(rentalDetailIds) != copiesByMovie.size()) {
+            return false;
+        }
+        eventPublisher.publishEvent(MoviesChangedEvent.availability(copiesByMovie.keySet()));
+        return true;
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.demo.service.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.cache.MoviesChangedEvent;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.repository.MovieRepository;
+import com.example.demo.repository.MovieRepository.MovieStockRow;
+import com.example.demo.service.InventoryService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//stock lives in a lock-free counter per title, checkouts and returns never touch the Movie row;
+//committed changes are coalesced per title and written by flush() as one batch of relative UPDATEs.
+//The counters are the truth, so one application instance owns the stock for as long as it runs
+//(see claimOwnership); NumberAvailable in the table trails them by up to one flush-interval.
+@Service
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "ledger")
+@Slf4j
+public class LedgerInventoryServiceImpl implements InventoryService {
+
+    static final String JOB_NAME = "INVENTORY_LEDGER";
+    static final String CLAIM_OWNERSHIP =
+            "UPDATE JobWatermark SET ModifiedDate = CURRENT_TIMESTAMP WHERE JobName = ?";
+    static final String CREATE_OWNER_ROW =
+            "INSERT INTO JobWatermark (JobName, ModifiedDate) VALUES (?, CURRENT_TIMESTAMP)";
+
+    //clamped the same way as Movie's @PrePersist, whatever the table held
+    static final String FLUSH_DELTA =
+            "UPDATE Movie SET NumberAvailable = CASE " +
+            "WHEN NumberAvailable + ? < 0 THEN 0 " +
+            "WHEN NumberAvailable + ? > NumberInStock THEN NumberInStock " +
+            "ELSE NumberAvailable + ? END, " +
+            "ModifiedDate = CURRENT_TIMESTAMP, Version = Version + 1 " +
+            "WHERE MovieID = ?";
+
+    private final MovieRepository movieRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataSource dataSource;
+    private final Duration lockTimeout;
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+    //open transaction holding the row lock on the INVENTORY_LEDGER JobWatermark row
+    private Connection ownership;
+    //cleared for good once the lock is lost, this instance's counters can no longer be trusted
+    private volatile boolean owned;
+
+    public LedgerInventoryServiceImpl(MovieRepository movieRepository,
+                                      JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      DataSource dataSource,
+                                      @Value("${app.inventory.ledger.lock-timeout:PT5S}") Duration lockTimeout,
+                                      MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.dataSource = dataSource;
+        this.lockTimeout = lockTimeout;
+        Gauge.builder("inventory.ledger.unflushed", stocks, ledger -> ledger.values().stream()
+                        .mapToInt(stock -> Math.abs(stock.pending.get()))
+                        .sum())
+                .description("Committed copies not yet written to Movie.NumberAvailable")
+                .register(meterRegistry);
+    }
+
+    //a second instance with counters of its own would hand out the same copies, so startup fails
+    //when another instance holds the row; the lock is held until shutdown, or until the database
+    //drops the connection of an instance that died
+    @PostConstruct
+    public void claimOwnership() {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            //the row is seeded by V11__inventory_ledger_lock.sql, only created here on a schema Hibernate generated
+            if (execute(connection, CLAIM_OWNERSHIP) == 0) {
+                execute(connection, CREATE_OWNER_ROW);
+            }
+            ownership = connection;
+            owned = true;
+            log.info("Stock ledger owned by this instance");
+        } catch (SQLException e) {
+            release(connection);
+            throw new IllegalStateException("Stock ledger is owned by another instance, no lock on JobWatermark "
+                    + JOB_NAME + " within " + lockTimeout, e);
+        }
+    }
+
+    @Override
+    public boolean reserve(Long movieId, int copies) {
+        checkOwned();
+        Stock stock = stock(movieId);
+        if (stock == null || !stock.take(copies)) {
+            return false;
+        }
+        //held from now on, given back if the rental rolls back
+        holdings().reserved.merge(movieId, copies, Integer::sum);
+        return true;
+    }
+
+    @Override
+    public void cancelReservation(Long movieId, int copies) {
+        stocks.get(movieId).giveBack(copies);
+        holdings().reserved.merge(movieId, -copies, Integer::sum);
+    }
+
+    //returned copies only become available once the return commits
+    @Override
+    public boolean release(Long movieId, int copies) {
+        checkOwned();
+        Stock stock = stock(movieId);
+        if (stock == null) {
+            return false;
+        }
+        Holdings holdings = holdings();
+        if (stock.available.get() + holdings.released.getOrDefault(movieId, 0) + copies > stock.inStock) {
+            return false;
+        }
+        holdings.released.merge(movieId, copies, Integer::sum);
+        return true;
+    }
+
+    //the copies held so far are dropped with the rolled back transaction
+    @Override
+    public boolean releaseReturned(Collection<Long> rentalDetailIds, Map<Long, Integer> copiesByMovie) {
+        for (Map.Entry<Long, Integer> copies : copiesByMovie.entrySet()) {
+            if (!release(copies.getKey(), copies.getValue())) {
+                log.warn("Movie ID: {} would go above its stock", copies.getKey());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //rebuilds every counter from the copies still out, titles already loaded on demand keep theirs;
+    //the difference to the stored availability goes out with the next flush
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        List<MovieStockRow> rows = transactionTemplate.execute(status -> movieRepository.findStockRows());
+        int corrected = 0;
+        for (MovieStockRow row : rows) {
+            Stock stock = Stock.from(row);
+            if (stocks.putIfAbsent(row.getMovieId(), stock) == null && stock.pending.get() != 0) {
+                corrected++;
+            }
+        }
+        log.info("Stock ledger reconciled {} titles, {} stored availabilities to correct", rows.size(), corrected);
+        flush();
+    }
+
+    //a catalogue edit may change NumberInStock, the titles already counted read it again once the edit
+    //commits; the copies out on rentals stay out, so availability moves by the change in stock and
+    //the table follows with the next flush. Titles not counted yet load the new stock on first use
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMoviesChanged(MoviesChangedEvent event) {
+        if (event.isAvailabilityOnly() || !owned) {
+            return;
+        }
+        try {
+            List<MovieStockRow> rows = transactionTemplate.execute(status -> event.isAllMovies()
+                    ? movieRepository.findStockRows()
+                    : event.getMovieIds().stream()
+                            .map(movieRepository::findStockRow)
+                            .flatMap(Optional::stream)
+                            .collect(Collectors.toList()));
+            for (MovieStockRow row : rows) {
+                Stock stock = stocks.get(row.getMovieId());
+                if (stock != null && stock.inStock != row.getNumberInStock()) {
+                    stock.pending.addAndGet(stock.restock(row.getNumberInStock()));
+                }
+            }
+        } catch (RuntimeException e) {
+            //the edit is committed, the counters keep the old stock until restart
+            log.warn("Reloading stock of changed titles failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.inventory.ledger.flush-interval:PT1S}",
+               fixedDelayString = "${app.inventory.ledger.flush-interval:PT1S}")
+    public int flush() {
+        if (!ownsLedger()) {
+            return 0;
+        }
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        stocks.forEach((movieId, stock) -> {
+            int delta = stock.pending.getAndSet(0);
+            if (delta != 0) {
+                deltas.put(movieId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> batch = deltas.entrySet().stream()
+                .map(entry -> new Object[] {entry.getValue(), entry.getValue(), entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_DELTA, batch));
+        } catch (RuntimeException e) {
+            //nothing was written, the deltas go out with the next flush
+            deltas.forEach((movieId, delta) -> stocks.get(movieId).pending.addAndGet(delta));
+            log.warn("Stock ledger flush of {} titles failed: {}", deltas.size(), e.getMessage());
+            return 0;
+        }
+
+        eventPublisher.publishEvent(MoviesChangedEvent.availability(deltas.keySet()));
+        log.debug("Flushed stock of {} titles", deltas.size());
+        return deltas.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+        release(ownership);
+        ownership = null;
+    }
+
+    Integer available(Long movieId) {
+        Stock stock = stocks.get(movieId);
+        return stock != null ? stock.available.get() : null;
+    }
+
+    //the lock lives only as long as its connection: once the database drops it, another instance can
+    //claim the row and hand out the same copies, so the row is touched again through it before every flush
+    private boolean ownsLedger() {
+        if (!owned) {
+            return false;
+        }
+        try {
+            if (ownership.isValid(queryTimeout()) && execute(ownership, CLAIM_OWNERSHIP) == 1) {
+                return true;
+            }
+            log.error("Stock ledger lock on JobWatermark {} is gone, refusing stock changes until restart", JOB_NAME);
+        } catch (SQLException e) {
+            log.error("Stock ledger lock on JobWatermark {} is gone, refusing stock changes until restart: {}",
+                    JOB_NAME, e.getMessage());
+        }
+        //the unflushed deltas are not written either, the new owner rebuilds the stock from the rentals
+        owned = false;
+        release(ownership);
+        ownership = null;
+        return false;
+    }
+
+    private void checkOwned() {
+        if (!owned) {
+            throw new ServiceUnavailableException("Stock is unavailable on this instance, please retry later",
+                    lockTimeout);
+        }
+    }
+
+    private int queryTimeout() {
+        return (int) Math.max(1, lockTimeout.toSeconds());
+    }
+
+    private int execute(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setQueryTimeout(queryTimeout());
+            statement.setString(1, JOB_NAME);
+            return statement.executeUpdate();
+        }
+    }
+
+    //rolling back drops the row lock, the next instance can take over
+    private void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try (connection) {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.warn("Releasing the stock ledger lock failed: {}", e.getMessage());
+        }
+    }
+
+    //titles added after startup are loaded on first use; not computeIfAbsent, which would hold the
+    //bin lock through the query and stall checkouts of other titles in the same bin. Two threads
+    //may both load a new title, the first one stored wins
+    private Stock stock(Long movieId) {
+        Stock stock = stocks.get(movieId);
+        if (stock != null) {
+            return stock;
+        }
+        Optional<MovieStockRow> row = movieRepository.findStockRow(movieId);
+        if (row.isEmpty()) {
+            return null;
+        }
+        Stock loaded = stocks.putIfAbsent(movieId, Stock.from(row.get()));
+        return loaded != null ? loaded : stocks.get(movieId);
+    }
+
+    //what the current transaction changed, applied to the counters when it completes
+    private Holdings holdings() {
+        Holdings holdings = (Holdings) TransactionSynchronizationManager.getResource(this);
+        if (holdings != null) {
+            return holdings;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock changes must run in a transaction");
+        }
+        Holdings created = new Holdings();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LedgerInventoryServiceImpl.this);
+                complete(created, status == STATUS_COMMITTED);
+            }
+        });
+        return created;
+    }
+
+    private void complete(Holdings holdings, boolean committed) {
+        holdings.reserved.forEach((movieId, copies) -> {
+            Stock stock = stocks.get(movieId);
+            if (committed) {
+                stock.pending.addAndGet(-copies);
+            } else {
+                stock.giveBack(copies);
+            }
+        });
+        if (committed) {
+            holdings.released.forEach((movieId, copies) -> {
+                Stock stock = stocks.get(movieId);
+                stock.pending.addAndGet(stock.giveBack(copies));
+            });
+        }
+    }
+
+    private static class Holdings {
+        private final Map<Long, Integer> reserved = new HashMap<>();
+        private final Map<Long, Integer> released = new HashMap<>();
+    }
+
+    private static class Stock {
+        private volatile int inStock;
+        private final AtomicInteger available;
+        //committed change not yet written to the table
+        private final AtomicInteger pending;
+
+        private Stock(int inStock, int available, int pending) {
+            this.inStock = inStock;
+            this.available = new AtomicInteger(available);
+            this.pending = new AtomicInteger(pending);
+        }
+
+        //every copy not out on a rental is available, within 0..inStock
+        static Stock from(MovieStockRow row) {
+            int inStock = row.getNumberInStock();
+            int available = (int) Math.max(0, Math.min(inStock, inStock - row.getOutstanding()));
+            return new Stock(inStock, available, available - row.getNumberAvailable());
+        }
+
+        boolean take(int copies) {
+            int current;
+            do {
+                current = available.get();
+                if (current < copies) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - copies));
+            return true;
+        }
+
+        //the copies out stay out, availability moves by the change within 0..newInStock;
+        //returns the copies actually added or taken away
+        synchronized int restock(int newInStock) {
+            int change = newInStock - inStock;
+            inStock = newInStock;
+            int current;
+            int next;
+            do {
+                current = available.get();
+                next = Math.max(0, Math.min(newInStock, current + change));
+            } while (!available.compareAndSet(current, next));
+            return next - current;
+        }
+
+        //never above the stock, returns the copies actually put back
+        int giveBack(int copies) {
+            int current;
+            int next;
+            do {
+                current = available.get();
+                next = Math.min(inStock, current + copies);
+            } while (!available.compareAndSet(current, next));
+            return next - current;
+        }
+    }
+}
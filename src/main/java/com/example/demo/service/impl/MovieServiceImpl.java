@@ -0,0 +1,43 @@
+package com.example.demo.service.impl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.MovieSearchDocument;
+import com.example.demo.cache.MovieSearchIndex;
+import com.example.demo.dto.response.MovieSearchResultDTO;
+import com.example.demo.service.MovieService;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Timed("movie.service")
+@RequiredArgsConstructor
+@Slf4j
+public class MovieServiceImpl implements MovieService {
+
+    private final MovieSearchIndex movieSearchIndex;
+
+    //answered from the index alone, no transaction and no connection
+    @Override
+    public List<MovieSearchResultDTO> searchMovies(String query, String genre, Boolean available, int limit) {
+        log.debug("Searching movies for '{}' (genre: {}, available: {})", query, genre, available);
+        return movieSearchIndex.search(query, genre, available, limit).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private MovieSearchResultDTO convertToDTO(MovieSearchDocument document) {
+        return new MovieSearchResultDTO(
+            document.getMovieId(),
+            document.getMovieName(),
+            document.getGenreName(),
+            document.getNumberInStock(),
+            document.getNumberAvailable()
+        );
+    }
+}
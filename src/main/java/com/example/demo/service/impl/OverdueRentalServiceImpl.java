@@ -0,0 +1,90 @@
+package com.example.demo.service.impl;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.cache.MovieCatalogueCache;
+import com.example.demo.cache.MovieCatalogueEntry;
+import com.example.demo.dto.response.OverdueRentalDTO;
+import com.example.demo.entity.JobWatermark;
+import com.example.demo.repository.JobWatermarkRepository;
+import com.example.demo.repository.OverdueRentalRepository;
+import com.example.demo.repository.OverdueRentalRepository.OverdueRentalRow;
+import com.example.demo.service.OverdueRentalService;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//overdue detection: each run records every copy still out past its due date in OverdueRental
+//and drops the ones returned since
+@Service
+@Timed("rental.overdue.service")
+@RequiredArgsConstructor
+@Slf4j
+public class OverdueRentalServiceImpl implements OverdueRentalService {
+
+    static final String JOB_NAME = "OVERDUE_RENTALS";
+
+    private final OverdueRentalRepository overdueRentalRepository;
+    private final JobWatermarkRepository jobWatermarkRepository;
+    private final MovieCatalogueCache movieCatalogueCache;
+
+    @Value("${app.rental.overdue.rental-days:7}")
+    private int rentalDays;
+
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${app.rental.overdue.initial-delay:PT1M}",
+               fixedDelayString = "${app.rental.overdue.scan-interval:PT15M}")
+    public int scanOverdueRentals() {
+        //rentals on or before the cutoff passed their due date before today
+        LocalDate cutoff = LocalDate.now().minusDays(rentalDays + 1L);
+        //one scan at a time across instances, the row is seeded by V10__overdue_scan_lock.sql and
+        //only created here on a schema Hibernate generated
+        JobWatermark watermark = jobWatermarkRepository.findForUpdate(JOB_NAME)
+                .orElseGet(() -> jobWatermarkRepository.saveAndFlush(
+                        JobWatermark.builder().jobName(JOB_NAME).build()));
+
+        int detected = overdueRentalRepository.insertOverdue(cutoff);
+        int cleared = overdueRentalRepository.deleteReturned();
+
+        watermark.setWatermark(cutoff);
+        jobWatermarkRepository.save(watermark);
+
+        log.info("Overdue scan up to {}: {} newly overdue, {} returned", cutoff, detected, cleared);
+        return detected;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OverdueRentalDTO> getOverdueRentals(Pageable pageable) {
+        Page<OverdueRentalRow> rows = overdueRentalRepository.findOutstanding(pageable);
+        movieCatalogueCache.getAll(rows.map(OverdueRentalRow::getMovieId).toSet());
+        return rows.map(this::convertToDTO);
+    }
+
+    OverdueRentalDTO convertToDTO(OverdueRentalRow row) {
+        MovieCatalogueEntry movie = movieCatalogueCache.get(row.getMovieId()).orElse(null);
+        LocalDate dueDate = row.getDateRented().plusDays(rentalDays);
+        return new OverdueRentalDTO(
+            row.getRentalDetailId(),
+            row.getRentalId(),
+            row.getCustomerId(),
+            row.getCustomerName(),
+            row.getMovieId(),
+            movie != null ? movie.getMovieName() : "Unknown",
+            row.getDateRented(),
+            dueDate,
+            Math.max(0, ChronoUnit.DAYS.between(dueDate, LocalDate.now())),
+            row.getDetectedDate()
+        );
+    }
+}
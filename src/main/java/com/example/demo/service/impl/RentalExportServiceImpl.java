@@ -0,0 +1,157 @@
+package com.example.demo.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.cache.MovieCatalogueCache;
+import com.example.demo.cache.MovieCatalogueEntry;
+import com.example.demo.dto.request.RentalExportFormat;
+import com.example.demo.dto.response.RentalItemDTO;
+import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.repository.RentalHeaderRepository;
+import com.example.demo.repository.RentalHeaderRepository.RentalRow;
+import com.example.demo.service.RentalExportService;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+//streams the whole rental history, one rental in memory at a time
+@Service
+@Timed("rental.export.service")
+@RequiredArgsConstructor
+@Slf4j
+public class RentalExportServiceImpl implements RentalExportService {
+
+    private static final int CLEAR_EVERY = 1000;
+    private static final String CSV_HEADER =
+            "rentalId,customerName,dateRented,rentalDetailId,movieName,genre,dateReturned";
+
+    private final RentalHeaderRepository rentalHeaderRepository;
+    private final MovieCatalogueCache movieCatalogueCache;
+    private final JsonMapper jsonMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportRentals(RentalExportFormat format, OutputStream outputStream) throws IOException {
+        log.info("Exporting rentals as {}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == RentalExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        long rentals = 0;
+        try (Stream<RentalRow> exportRows = rentalHeaderRepository.streamRentalExportRows()) {
+            RentalListDTO current = null;
+            Iterator<RentalRow> iterator = exportRows.iterator();
+            while (iterator.hasNext()) {
+                RentalRow row = iterator.next();
+                //rows are ordered by rental, a new id closes the previous record
+                if (current == null || !current.getRentalId().equals(row.getRentalId())) {
+                    if (current != null) {
+                        write(format, current, writer);
+                        rentals++;
+                    }
+                    current = new RentalListDTO(row.getRentalId(), row.getCustomerName(),
+                            row.getDateRented(), new ArrayList<>());
+                    current.setModifiedDate(row.getLastModified());
+                }
+                if (row.getRentalDetailId() != null) {
+                    current.getRentDetails().add(convertToRentalItemDTO(row));
+                }
+                //catalogue misses load Movie entities into this read-only session, drop them regularly
+                if (++rows % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+            if (current != null) {
+                write(format, current, writer);
+                rentals++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} rentals ({} rows) as {}", rentals, rows, format);
+    }
+
+    private RentalItemDTO convertToRentalItemDTO(RentalRow row) {
+        MovieCatalogueEntry movie = row.getMovieId() != null
+            ? movieCatalogueCache.get(row.getMovieId()).orElse(null)
+            : null;
+        return new RentalItemDTO(
+            row.getRentalDetailId(),
+            movie != null ? movie.getMovieName() : "Unknown",
+            movie != null ? movie.getGenreName() : "Unknown",
+            row.getDateReturned()
+        );
+    }
+
+    private void write(RentalExportFormat format, RentalListDTO rental, Writer writer) throws IOException {
+        if (format == RentalExportFormat.CSV) {
+            writeCsv(rental, writer);
+        } else {
+            writer.write(jsonMapper.writeValueAsString(rental));
+            writer.write('\n');
+        }
+    }
+
+    //one line per rental detail, a rental without details still gets a line
+    private void writeCsv(RentalListDTO rental, Writer writer) throws IOException {
+        if (rental.getRentDetails().isEmpty()) {
+            writeCsvLine(rental, null, writer);
+        }
+        for (RentalItemDTO item : rental.getRentDetails()) {
+            writeCsvLine(rental, item, writer);
+        }
+    }
+
+    private void writeCsvLine(RentalListDTO rental, RentalItemDTO item, Writer writer) throws IOException {
+        writer.write(String.valueOf(rental.getRentalId()));
+        writer.write(',');
+        writer.write(csv(rental.getCustomerName()));
+        writer.write(',');
+        writer.write(csv(rental.getDateRented()));
+        writer.write(',');
+        writer.write(item != null ? String.valueOf(item.getRentalDetailId()) : "");
+        writer.write(',');
+        writer.write(item != null ? csv(item.getMovieName()) : "");
+        writer.write(',');
+        writer.write(item != null ? csv(item.getGenre()) : "");
+        writer.write(',');
+        writer.write(item != null ? csv(item.getDateReturned()) : "");
+        writer.write('\n');
+    }
+
+    private String csv(LocalDate value) {
+        return value != null ? value.toString() : "";
+    }
+
+    //RFC 4180 quoting
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.demo.service.impl;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.entity.RentalRequest;
+import com.example.demo.entity.RentalRequestStatus;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.RentalRequestRepository;
+import com.example.demo.service.RentalService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//worker stages of the asynchronous rental pipeline: a bounded in-memory queue of request ids
+//in front of a fixed number of workers, the RentalRequest table is the durable copy of the queue
+@Component
+@Slf4j
+public class RentalRequestProcessor {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final RentalRequestRepository rentalRequestRepository;
+    private final RentalService rentalService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Long> queue;
+    private final int workers;
+    private final String nodeId;
+    private final Duration claimTimeout;
+    //claims of this node from before this time were left behind by its last run
+    private final LocalDateTime startedAt = now();
+    private ExecutorService executor;
+
+    public RentalRequestProcessor(RentalRequestRepository rentalRequestRepository,
+                                  RentalService rentalService,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.rental.async.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${app.rental.async.workers:2}") int workers,
+                                  @Value("${app.rental.async.node-id:}") String nodeId,
+                                  @Value("${app.rental.async.claim-timeout:PT5M}") Duration claimTimeout,
+                                  MeterRegistry meterRegistry) {
+        this.rentalRequestRepository = rentalRequestRepository;
+        this.rentalService = rentalService;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.nodeId = nodeId.isBlank() ? hostName() : nodeId;
+        this.claimTimeout = claimTimeout;
+        Gauge.builder("rental.requests.queued", queue, BlockingQueue::size)
+                .description("Accepted rental requests waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    //never blocks the request thread, false means the queue is full
+    public boolean enqueue(Long rentalRequestId) {
+        return queue.offer(rentalRequestId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("rental-request-worker-", 0).factory());
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+        Thread.ofVirtual().name("rental-request-recovery").start(this::recover);
+        log.info("Started {} rental request workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            //queued ids are dropped, their rows stay CREATED and are picked up again on the next start
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    //re-queues work interrupted by this node's last shutdown and work of nodes that stopped for good; a PROCESSING
+    //row never committed its rental, completion happens in the rental's own transaction
+    void recover() {
+        int interrupted = releaseAbandoned();
+        List<Long> pending = rentalRequestRepository.findIdsByStatusIn(List.of(RentalRequestStatus.CREATED));
+        if (!pending.isEmpty()) {
+            log.info("Recovering {} pending rental requests ({} were in progress)", pending.size(), interrupted);
+        }
+        try {
+            for (Long rentalRequestId : pending) {
+                //blocking put, recovery waits for the workers instead of rejecting
+                queue.put(rentalRequestId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //a node that does not come back leaves its claims behind, the others take them over once they are stale
+    @Scheduled(initialDelayString = "${app.rental.async.claim-timeout:PT5M}",
+               fixedDelayString = "${app.rental.async.claim-timeout:PT5M}")
+    public void recoverStale() {
+        int released = releaseAbandoned();
+        if (released == 0) {
+            return;
+        }
+        log.info("Took over {} stale rental requests", released);
+        for (Long rentalRequestId : rentalRequestRepository.findIdsByStatusIn(List.of(RentalRequestStatus.CREATED))) {
+            //never blocks the scheduler, whatever does not fit is queued by the next sweep or start
+            if (!queue.offer(rentalRequestId)) {
+                break;
+            }
+        }
+    }
+
+    //claimedAt comes from each node's own clock, claim-timeout has to stay well above the skew between them
+    private int releaseAbandoned() {
+        return rentalRequestRepository.releaseAbandoned(nodeId, startedAt, now().minus(claimTimeout));
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                process(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Rental request worker failed", e);
+            }
+        }
+    }
+
+    void process(Long rentalRequestId) {
+        //claim the request, a duplicate id from recovery or another worker finds it taken
+        LocalDateTime claimedAt = now();
+        if (rentalRequestRepository.claim(rentalRequestId, nodeId, claimedAt) == 0) {
+            log.debug("Rental request {} already claimed", rentalRequestId);
+            return;
+        }
+        RentalRequest rentalRequest = rentalRequestRepository.findById(rentalRequestId).orElse(null);
+        if (rentalRequest == null) {
+            return;
+        }
+
+        try {
+            //resolve inventory and allocate stock, COMPLETED commits together with the rental
+            transactionTemplate.executeWithoutResult(status -> {
+                RentalListDTO rental = rentalService.createRental(new RentalRequestDTO(
+                        rentalRequest.getCustomerId(),
+                        rentalRequest.getMovieIds(),
+                        rentalRequest.getDateRented()));
+                //another node took the claim over as stale, its rental wins and this one rolls back
+                if (rentalRequestRepository.complete(rentalRequestId, rental.getRentalId(), nodeId, claimedAt) == 0) {
+                    throw new ClaimLostException();
+                }
+            });
+            log.info("Rental request {} completed", rentalRequestId);
+        } catch (ClaimLostException e) {
+            log.warn("Rental request {} was taken over by another node, its rental was rolled back", rentalRequestId);
+        } catch (ResourceNotFoundException | BusinessException e) {
+            log.info("Rental request {} failed: {}", rentalRequestId, e.getMessage());
+            rentalRequestRepository.fail(rentalRequestId, truncate(e.getMessage()), nodeId, claimedAt);
+        } catch (RuntimeException e) {
+            log.error("Rental request {} failed unexpectedly", rentalRequestId, e);
+            rentalRequestRepository.fail(rentalRequestId, "An unexpected error occurred", nodeId, claimedAt);
+        }
+    }
+
+    private String truncate(String message) {
+        return message != null && message.length() > MAX_ERROR_LENGTH
+                ? message.substring(0, MAX_ERROR_LENGTH)
+                : message;
+    }
+
+    //millisecond precision survives every column type, complete and fail match the claim on equality
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Host name cannot be resolved, set app.rental.async.node-id", e);
+        }
+    }
+
+    private static class ClaimLostException extends RuntimeException {
+    }
+}
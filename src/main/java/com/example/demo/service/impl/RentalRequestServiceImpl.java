@@ -0,0 +1,70 @@
+package com.example.demo.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.response.RentalRequestStatusDTO;
+import com.example.demo.entity.RentalRequest;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.repository.RentalRequestRepository;
+import com.example.demo.service.RentalRequestService;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Timed("rental.request.service")
+@RequiredArgsConstructor
+@Slf4j
+public class RentalRequestServiceImpl implements RentalRequestService {
+
+    private static final Duration QUEUE_FULL_RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final RentalRequestRepository rentalRequestRepository;
+    private final RentalRequestProcessor rentalRequestProcessor;
+
+    @Override
+    public RentalRequestStatusDTO submitRental(RentalRequestDTO rentalRequest) {
+        //stage one: persist and queue, customer, inventory and stock are left to the workers
+        RentalRequest accepted = rentalRequestRepository.save(RentalRequest.builder()
+                .customerId(rentalRequest.getCustomerId())
+                .movieIds(rentalRequest.getMovieIds())
+                .dateRented(rentalRequest.getDateRented() != null ? rentalRequest.getDateRented() : LocalDate.now())
+                .build());
+
+        if (!rentalRequestProcessor.enqueue(accepted.getRentalRequestId())) {
+            //backpressure: the client retries, so the stored copy is dropped
+            rentalRequestRepository.deleteById(accepted.getRentalRequestId());
+            log.warn("Rental queue is full, rejecting request for customer: {}", rentalRequest.getCustomerId());
+            throw new ServiceUnavailableException("Rental queue is full, please retry later", QUEUE_FULL_RETRY_AFTER);
+        }
+
+        log.info("Accepted rental request {} for customer: {}",
+                accepted.getRentalRequestId(), rentalRequest.getCustomerId());
+        return convertToDTO(accepted);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RentalRequestStatusDTO getRentalRequest(Long rentalRequestId) {
+        return rentalRequestRepository.findById(rentalRequestId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("RentalRequest", "id", rentalRequestId));
+    }
+
+    private RentalRequestStatusDTO convertToDTO(RentalRequest rentalRequest) {
+        return new RentalRequestStatusDTO(
+                rentalRequest.getRentalRequestId(),
+                rentalRequest.getStatus().name(),
+                rentalRequest.getRentalId(),
+                rentalRequest.getErrorMessage(),
+                rentalRequest.getCreatedDate(),
+                rentalRequest.getModifiedDate());
+    }
+}
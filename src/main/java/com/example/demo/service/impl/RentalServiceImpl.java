@@ -3,46 +3,125 @@ package com.example.demo.service.impl;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.demo.cache.CustomerCache;
+import com.example.demo.cache.MovieCatalogueCache;
+import com.example.demo.cache.MovieCatalogueEntry;
+import com.example.demo.cache.RentalReadCache;
+import com.example.demo.dto.request.KeysetCursor;
 import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.request.RentalReturnDTO;
+import com.example.demo.dto.response.CursorPageResponse;
+import com.example.demo.dto.response.CustomerListDTO;
+import com.example.demo.dto.response.RentalBatchItemDTO;
+import com.example.demo.dto.response.RentalBatchResponseDTO;
 import com.example.demo.dto.response.RentalItemDTO;
 import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.dto.response.RentalReturnResultDTO;
 import com.example.demo.entity.Customer;
-import com.example.demo.entity.Movie;
 import com.example.demo.entity.RentalDetail;
 import com.example.demo.entity.RentalHeader;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.metrics.RentalMetrics;
+import com.example.demo.outbox.OutboxWriter;
+import com.example.demo.outbox.RentalEvent;
+import com.example.demo.repository.CustomerRentalSummaryRepository;
 import com.example.demo.repository.CustomerRepository;
 import com.example.demo.repository.MovieRepository;
+import com.example.demo.repository.RentalDetailRepository;
+import com.example.demo.repository.RentalDetailRepository.OutstandingRentalDetail;
 import com.example.demo.repository.RentalHeaderRepository;
+import com.example.demo.repository.RentalHeaderRepository.RentalRow;
+import com.example.demo.retry.RetryOnConflict;
+import com.example.demo.service.InventoryService;
 import com.example.demo.service.RentalService;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Timed("rental.service")
 @RequiredArgsConstructor
 @Slf4j
 public class RentalServiceImpl implements RentalService {
     
     private final RentalHeaderRepository rentalHeaderRepository;
+    private final RentalDetailRepository rentalDetailRepository;
     private final CustomerRepository customerRepository;
+    private final CustomerRentalSummaryRepository customerRentalSummaryRepository;
     private final MovieRepository movieRepository;
+    private final MovieCatalogueCache movieCatalogueCache;
+    private final CustomerCache customerCache;
+    private final RentalReadCache rentalReadCache;
+    private final TransactionTemplate transactionTemplate;
+    private final RentalMetrics rentalMetrics;
+    private final OutboxWriter outboxWriter;
+    private final InventoryService inventoryService;
+
+    @Value("${app.rental.batch.chunk-size:50}")
+    private int batchChunkSize;
 
     @Transactional(readOnly = true)
     @Override
     public Page<RentalListDTO> getAllRentals(Pageable pageable) {
-        Page<RentalHeader> rentalsPage = rentalHeaderRepository.findAllWithDetails(pageable);
-        
-        return rentalsPage.map(this::convertToRentalListDTO);
+        //page over the ids, then read the page as flat rows, no entities are hydrated
+        Page<Long> rentalIds = rentalHeaderRepository.findRentalIds(pageable);
+        if (!rentalIds.hasContent()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, rentalIds.getTotalElements());
+        }
+        Map<Long, RentalListDTO> rentalsById = assembleRentals(
+                rentalHeaderRepository.findRentalRowsByIdIn(rentalIds.getContent()));
+
+        //keep the order of the id page
+        return rentalIds.map(rentalsById::get);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageResponse<RentalListDTO> getRentalsAfter(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        //read one extra id to know whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Long> rentalIds = position == null
+                ? rentalHeaderRepository.findFirstRentalIds(limit)
+                : rentalHeaderRepository.findRentalIdsAfter(position.sortKeyAsDate(), position.getId(), limit);
+
+        boolean hasNext = rentalIds.size() > size;
+        List<Long> pageIds = hasNext ? rentalIds.subList(0, size) : rentalIds;
+        if (pageIds.isEmpty()) {
+            return new CursorPageResponse<>(new ArrayList<>(), size, null, false);
+        }
+
+        Map<Long, RentalListDTO> rentalsById = assembleRentals(rentalHeaderRepository.findRentalRowsByIdIn(pageIds));
+        List<RentalListDTO> rentals = pageIds.stream()
+                .map(rentalsById::get)
+                .collect(Collectors.toList());
+
+        RentalListDTO last = rentals.get(rentals.size() - 1);
+        String nextCursor = hasNext
+                ? new KeysetCursor(last.getDateRented().toString(), last.getRentalId()).encode()
+                : null;
+        return new CursorPageResponse<>(rentals, size, nextCursor, hasNext);
     }
 
       //method to convert RentalHeader to RentalDetailDTO
@@ -56,22 +135,40 @@ public class RentalServiceImpl implements RentalService {
             .map(this::convertToRentalItemDTO)
             .collect(Collectors.toList());
         
-        return new RentalListDTO(
+        RentalListDTO rental = new RentalListDTO(
             rentalHeader.getRentalId(),
             customerName,
             rentalHeader.getDateRented(),
             rentDetails
         );
+        //same version a read of this rental reports, see RentalRow.getLastModified
+        LocalDateTime customerModified = rentalHeader.getCustomer() != null
+            ? rentalHeader.getCustomer().getModifiedDate()
+            : null;
+        rental.setModifiedDate(later(rentalHeader.getModifiedDate(), customerModified));
+        return rental;
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second != null && second.isAfter(first) ? second : first;
     }
 
      //method to convert RentalDetail to RentalItemDTO
     RentalItemDTO convertToRentalItemDTO(RentalDetail rentalDetail) {
-        String movieName = rentalDetail.getMovie() != null 
-            ? rentalDetail.getMovie().getMovieName() 
+        //the movie is an uninitialized proxy, names come from the catalogue cache
+        MovieCatalogueEntry movie = rentalDetail.getMovie() != null
+            ? movieCatalogueCache.get(rentalDetail.getMovie().getMovieId()).orElse(null)
+            : null;
+
+        String movieName = movie != null 
+            ? movie.getMovieName() 
             : "Unknown";
         
-        String genre = rentalDetail.getMovie() != null && rentalDetail.getMovie().getGenre() != null
-            ? rentalDetail.getMovie().getGenre().getGenreName()
+        String genre = movie != null
+            ? movie.getGenreName()
             : "Unknown";
         
         return new RentalItemDTO(
@@ -82,39 +179,171 @@ public class RentalServiceImpl implements RentalService {
         );
     }
 
-    @Transactional(readOnly = true)
+    //no transaction, a hit in the rental read cache does not take a connection
     @Override
     public RentalListDTO getRentalById(Long id) {
-        RentalHeader rentalHeader = rentalHeaderRepository.findByIdWithDetails(id)
+        return rentalReadCache.get(id, rentalIds -> assembleRentals(rentalHeaderRepository.findRentalRowsByIdIn(rentalIds)))
                 .orElseThrow(() -> new ResourceNotFoundException("Rental", "id", id));
-        
-        return convertToRentalListDTO(rentalHeader);
+    }
+
+    //folds the flat rows (ordered by rental) back into one RentalListDTO per rental,
+    //every catalogue miss is loaded in one query before conversion
+    Map<Long, RentalListDTO> assembleRentals(List<RentalRow> rows) {
+        Set<Long> movieIds = rows.stream()
+                .map(RentalRow::getMovieId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!movieIds.isEmpty()) {
+            movieCatalogueCache.getAll(movieIds);
+        }
+
+        Map<Long, RentalListDTO> rentalsById = new LinkedHashMap<>();
+        for (RentalRow row : rows) {
+            RentalListDTO rental = rentalsById.computeIfAbsent(row.getRentalId(), rentalId -> {
+                RentalListDTO assembled = new RentalListDTO(rentalId, row.getCustomerName(), row.getDateRented(),
+                        new ArrayList<>());
+                assembled.setModifiedDate(row.getLastModified());
+                return assembled;
+            });
+            if (row.getRentalDetailId() != null) {
+                rental.getRentDetails().add(convertToRentalItemDTO(row));
+            }
+        }
+        return rentalsById;
+    }
+
+    RentalItemDTO convertToRentalItemDTO(RentalRow row) {
+        MovieCatalogueEntry movie = row.getMovieId() != null
+            ? movieCatalogueCache.get(row.getMovieId()).orElse(null)
+            : null;
+        return new RentalItemDTO(
+            row.getRentalDetailId(),
+            movie != null ? movie.getMovieName() : "Unknown",
+            movie != null ? movie.getGenreName() : "Unknown",
+            row.getDateReturned()
+        );
     }
 
     @Override
     @Transactional
+    @RetryOnConflict
     public RentalListDTO createRental(RentalRequestDTO rentalRequest) {
         log.info("Creating rental for customer: {}", rentalRequest.getCustomerId());
-        //validate and fetch customer
-        Customer customer = customerRepository.findById(rentalRequest.getCustomerId())
+        //validate and fetch customer, from the lookup cache
+        CustomerListDTO customer = customerCache.get(rentalRequest.getCustomerId())
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Customer not found with ID: " + rentalRequest.getCustomerId()));
         
         //validate and fetch movies
-        List<Movie> movies = validateAndFetchMovies(rentalRequest.getMovieIds());
+        List<MovieCatalogueEntry> movies = validateAndFetchMovies(rentalRequest.getMovieIds());
+        
+        //update movie availability before anything is persisted
+        reserveStock(movies);
         
-        //create rental header
-        RentalHeader rentalHeader = createRentalHeader(customer, rentalRequest.getDateRented());
+        RentalListDTO rental = saveRental(customer, movies, rentalRequest.getDateRented());
+        rentalMetrics.rentalsCreated(1);
+        return rental;
+    }
+
+    @Override
+    public RentalBatchResponseDTO createRentals(List<RentalRequestDTO> rentalRequests) {
+        log.info("Creating batch of {} rentals", rentalRequests.size());
+        int chunkSize = Math.max(1, batchChunkSize);
+        List<RentalBatchItemDTO> results = new ArrayList<>(rentalRequests.size());
+        for (int start = 0; start < rentalRequests.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, rentalRequests.size());
+            results.addAll(createRentalChunk(rentalRequests, start, end));
+        }
+        RentalBatchResponseDTO response = RentalBatchResponseDTO.of(results);
+        rentalMetrics.rentalsCreated(response.getCreated());
+        return response;
+    }
+
+    //one transaction per chunk, if the chunk cannot commit every item is retried in its own transaction
+    private List<RentalBatchItemDTO> createRentalChunk(List<RentalRequestDTO> rentalRequests, int start, int end) {
+        try {
+            return transactionTemplate.execute(status -> processRentalChunk(rentalRequests, start, end));
+        } catch (RuntimeException e) {
+            log.warn("Rental batch chunk {}-{} failed, retrying items one by one", start, end - 1, e);
+            List<RentalBatchItemDTO> results = new ArrayList<>();
+            for (int index = start; index < end; index++) {
+                int item = index;
+                try {
+                    results.addAll(transactionTemplate.execute(status -> processRentalChunk(rentalRequests, item, item + 1)));
+                } catch (RuntimeException itemFailure) {
+                    log.warn("Rental batch item {} failed", item, itemFailure);
+                    results.add(RentalBatchItemDTO.failed(item, itemFailure.getMessage()));
+                }
+            }
+            return results;
+        }
+    }
+
+    List<RentalBatchItemDTO> processRentalChunk(List<RentalRequestDTO> rentalRequests, int start, int end) {
+        List<RentalRequestDTO> chunk = rentalRequests.subList(start, end);
+
+        //resolve every customer and title of the chunk up front
+        Map<Long, CustomerListDTO> customersById = customerCache.getAll(chunk.stream()
+                .map(RentalRequestDTO::getCustomerId)
+                .collect(Collectors.toSet()));
+        movieCatalogueCache.getAll(chunk.stream()
+                .flatMap(rentalRequest -> rentalRequest.getMovieIds().stream())
+                .collect(Collectors.toSet()));
+
+        //reserve stock item by item, a failed item gives its copies back and is reported on its own
+        Map<Integer, List<MovieCatalogueEntry>> reservedMovies = new HashMap<>();
+        Map<Integer, String> errors = new HashMap<>();
+        for (int index = start; index < end; index++) {
+            RentalRequestDTO rentalRequest = rentalRequests.get(index);
+            try {
+                if (!customersById.containsKey(rentalRequest.getCustomerId())) {
+                    throw new ResourceNotFoundException("Customer not found with ID: " + rentalRequest.getCustomerId());
+                }
+                List<MovieCatalogueEntry> movies = validateAndFetchMovies(rentalRequest.getMovieIds());
+                reserveStock(movies);
+                reservedMovies.put(index, movies);
+            } catch (ResourceNotFoundException | BusinessException e) {
+                errors.put(index, e.getMessage());
+            }
+        }
+
+        //persist the accepted rentals after all stock updates, so their inserts are flushed in JDBC batches
+        List<RentalBatchItemDTO> results = new ArrayList<>();
+        for (int index = start; index < end; index++) {
+            List<MovieCatalogueEntry> movies = reservedMovies.get(index);
+            if (movies == null) {
+                results.add(RentalBatchItemDTO.failed(index, errors.get(index)));
+                continue;
+            }
+            RentalRequestDTO rentalRequest = rentalRequests.get(index);
+            results.add(RentalBatchItemDTO.created(index, saveRental(
+                    customersById.get(rentalRequest.getCustomerId()), movies, rentalRequest.getDateRented())));
+        }
+        return results;
+    }
+
+    private RentalListDTO saveRental(CustomerListDTO customer, List<MovieCatalogueEntry> movies, LocalDate dateRented) {
+        //create rental header, the customer is only referenced by id
+        RentalHeader rentalHeader = createRentalHeader(
+                customerRepository.getReferenceById(customer.getCustomerId()), dateRented);
         
-        //create rental details, update movie availability, init response
+        //create rental details, init response
         List<RentalItemDTO> rentDetails = new ArrayList<>();
-        createRentalDetailsAndUpdateStock(rentalHeader, movies, rentDetails);
+        createRentalDetails(rentalHeader, movies, rentDetails);
         
         //save everything and set rentalId for response
         rentalHeader = rentalHeaderRepository.save(rentalHeader);
+        if (customerRentalSummaryRepository.recordRental(customer.getCustomerId(), movies.size(),
+                rentalHeader.getDateRented()) == 0) {
+            log.warn("No rental summary for customer ID: {}, summary left unchanged", customer.getCustomerId());
+        }
+        outboxWriter.rentalCreated(new RentalEvent(rentalHeader.getRentalId(), customer.getCustomerId(),
+                rentalHeader.getDateRented(), rentalHeader.getRentalDetails().stream()
+                        .map(detail -> new RentalEvent.Item(detail.getRentalDetailId(), detail.getMovie().getMovieId()))
+                        .collect(Collectors.toList())));
         
         //finalize dto response
-        return buildRentalResponse(rentalHeader, rentDetails);
+        return buildRentalResponse(rentalHeader, customer.getCustomerName(), rentDetails);
     }
 
     RentalHeader createRentalHeader(Customer customer, LocalDate dateRented) {
@@ -126,51 +355,90 @@ public class RentalServiceImpl implements RentalService {
         return rentalHeader;
     }
 
-    List<Movie> validateAndFetchMovies(List<Long> movieIds) {
-        List<Movie> movies = new ArrayList<>();
-        
+    List<MovieCatalogueEntry> validateAndFetchMovies(List<Long> movieIds) {
+        //resolve every requested title from the catalogue cache, misses in one query
+        Map<Long, MovieCatalogueEntry> moviesById = movieCatalogueCache.getAll(new LinkedHashSet<>(movieIds));
+
+        //report all missing titles at once
+        List<Long> missingIds = movieIds.stream()
+                .distinct()
+                .filter(movieId -> !moviesById.containsKey(movieId))
+                .collect(Collectors.toList());
+        if (missingIds.size() == 1) {
+            throw new ResourceNotFoundException("Movie not found with ID: " + missingIds.get(0));
+        }
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException("Movies not found with IDs: " + missingIds.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", ")));
+        }
+
+        //availability is not cached, it is checked by the inventory in reserveStock
+
+        //keep the requested order, one entry per copy
+        List<MovieCatalogueEntry> movies = new ArrayList<>();
         for (Long movieId : movieIds) {
-            Movie movie = movieRepository.findById(movieId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Movie not found with ID: " + movieId));
-            
-            if (movie.getNumberAvailable() <= 0) {
-                throw new BusinessException("Movie '" + movie.getMovieName() +
-                    "' is out of stock. Available: " + movie.getNumberAvailable());
-            }
-            
-            movies.add(movie);
+            movies.add(moviesById.get(movieId));
         }
-        
+
         return movies;
     }
 
-    private List<RentalItemDTO> createRentalDetailsAndUpdateStock(RentalHeader rentalHeader,
-                                                                List<Movie> movies,
-                                                                List<RentalItemDTO> rentDetails) {
-        for (Movie movie : movies) {
+    private List<RentalItemDTO> createRentalDetails(RentalHeader rentalHeader,
+                                                  List<MovieCatalogueEntry> movies,
+                                                  List<RentalItemDTO> rentDetails) {
+        for (MovieCatalogueEntry movie : movies) {
             RentalDetail rentalDetail = new RentalDetail();
             rentalDetail.setRentalHeader(rentalHeader);
-            rentalDetail.setMovie(movie);
+            //reference only, the insert needs the foreign key and nothing else
+            rentalDetail.setMovie(movieRepository.getReferenceById(movie.getMovieId()));
             rentalDetail.setDateReturned(null);
             rentalDetail.setCreatedDate(LocalDateTime.now());
             rentalDetail.setModifiedDate(LocalDateTime.now());
             
             rentalHeader.addRentalDetail(rentalDetail);
-            
-            movie.setNumberAvailable(movie.getNumberAvailable() - 1);
-            movieRepository.save(movie);
 
             rentDetails.add(new RentalItemDTO(null,
                 movie.getMovieName(),
-                movie.getGenre().getGenreName(),
+                movie.getGenreName(),
                 null));
         }
         return rentDetails;
     }
 
-        private RentalListDTO buildRentalResponse(RentalHeader rentalHeader, List<RentalItemDTO> rentDetails) {
+    //take the copies from the inventory, reporting every title
+    //that does not have enough copies left
+    private void reserveStock(List<MovieCatalogueEntry> movies) {
+        Map<Long, Integer> copiesToReserve = new LinkedHashMap<>();
+        movies.forEach(movie -> copiesToReserve.merge(movie.getMovieId(), 1, Integer::sum));
+
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        List<String> outOfStock = new ArrayList<>();
+        copiesToReserve.forEach((movieId, copies) -> {
+            if (inventoryService.reserve(movieId, copies)) {
+                reserved.put(movieId, copies);
+            } else {
+                String movieName = movies.stream()
+                        .filter(movie -> movie.getMovieId().equals(movieId))
+                        .map(MovieCatalogueEntry::getMovieName)
+                        .findFirst()
+                        .orElse(String.valueOf(movieId));
+                outOfStock.add("Movie '" + movieName + "' is out of stock");
+            }
+        });
+        //give back what was already taken, so a failed rental leaves stock untouched
+        //even when it shares the transaction with others (batch creation)
+        if (!outOfStock.isEmpty()) {
+            rentalMetrics.outOfStock(outOfStock.size());
+            reserved.forEach(inventoryService::cancelReservation);
+            throw new BusinessException(String.join("; ", outOfStock));
+        }
+    }
+
+        private RentalListDTO buildRentalResponse(RentalHeader rentalHeader, String customerName,
+                                                  List<RentalItemDTO> rentDetails) {
         RentalListDTO responseDTO = new RentalListDTO(rentalHeader.getRentalId(),
-                                                    rentalHeader.getCustomer().getCustomerName(),
+                                                    customerName,
                                                     rentalHeader.getDateRented(),
                                                     rentDetails);
         //set DTO rentalDetailId
@@ -184,6 +452,7 @@ public class RentalServiceImpl implements RentalService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public RentalListDTO returnRental(Long rentalId, Long rentalDetailId) {
         RentalHeader rentalHeader = rentalHeaderRepository.findByIdWithDetails(rentalId)
                 .orElseThrow(() -> new ResourceNotFoundException("Rental", "id", rentalId));
@@ -209,14 +478,89 @@ public class RentalServiceImpl implements RentalService {
         rentalDetailToReturn.setModifiedDate(LocalDateTime.now());
         
         //update movie availability (increase stock by 1)
-        Movie movie = rentalDetailToReturn.getMovie();
-        movie.setNumberAvailable(movie.getNumberAvailable() + 1);
-        movieRepository.save(movie);
+        Long movieId = rentalDetailToReturn.getMovie().getMovieId();
+        if (!inventoryService.release(movieId, 1)) {
+            log.warn("Movie ID: {} is already fully available, stock left unchanged", movieId);
+        }
 
-        //save the changes
-        rentalHeaderRepository.save(rentalHeader);
+        //flushed now, so @UpdateTimestamp has stamped the modifiedDate the response carries
+        rentalHeaderRepository.saveAndFlush(rentalHeader);
+        rentalReadCache.evict(List.of(rentalId));
+        recordReturns(rentalHeader.getCustomer().getCustomerId(), 1);
+        outboxWriter.rentalReturned(new RentalEvent(rentalId, rentalHeader.getCustomer().getCustomerId(),
+                rentalDetailToReturn.getDateReturned(), List.of(new RentalEvent.Item(rentalDetailId, movieId))));
+        rentalMetrics.copiesReturned(1);
         
         //convert to DTO and return
         return convertToRentalListDTO(rentalHeader);
     }
+
+    @Override
+    @Transactional
+    public RentalReturnResultDTO returnRentals(RentalReturnDTO rentalReturn) {
+        Long customerId = rentalReturn.getCustomerId();
+        log.info("Returning {} copies for customer: {}", rentalReturn.getMovieIds().size(), customerId);
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer not found with ID: " + customerId);
+        }
+
+        //copies handed back per title
+        Map<Long, Integer> copiesToReturn = new LinkedHashMap<>();
+        rentalReturn.getMovieIds().forEach(movieId -> copiesToReturn.merge(movieId, 1, Integer::sum));
+
+        //close the oldest outstanding copies first, one rental detail per returned copy
+        List<Long> rentalDetailIds = new ArrayList<>();
+        Set<Long> rentalIds = new LinkedHashSet<>();
+        Map<Long, List<RentalEvent.Item>> returnedByRental = new LinkedHashMap<>();
+        Map<Long, Integer> returnedCopies = new LinkedHashMap<>();
+        for (OutstandingRentalDetail detail : rentalDetailRepository.findOutstanding(
+                customerId, copiesToReturn.keySet(), rentalReturn.getDateRented())) {
+            int remaining = copiesToReturn.get(detail.getMovieId());
+            if (remaining > 0) {
+                rentalDetailIds.add(detail.getRentalDetailId());
+                rentalIds.add(detail.getRentalId());
+                returnedByRental.computeIfAbsent(detail.getRentalId(), id -> new ArrayList<>())
+                        .add(new RentalEvent.Item(detail.getRentalDetailId(), detail.getMovieId()));
+                copiesToReturn.put(detail.getMovieId(), remaining - 1);
+                returnedCopies.merge(detail.getMovieId(), 1, Integer::sum);
+            }
+        }
+
+        List<String> notRented = copiesToReturn.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> String.valueOf(entry.getKey()))
+                .collect(Collectors.toList());
+        if (!notRented.isEmpty()) {
+            throw new BusinessException("No outstanding rental for movie IDs: " + String.join(", ", notRented));
+        }
+
+        //set-based statements, whatever the number of copies
+        LocalDate dateReturned = LocalDate.now();
+        if (rentalDetailRepository.markReturned(rentalDetailIds, dateReturned) != rentalDetailIds.size()) {
+            //some copies were closed by a concurrent return, roll back everything
+            throw new BusinessException("Some of these rentals were returned in the meantime, please retry");
+        }
+        rentalHeaderRepository.touchModifiedDate(rentalIds, LocalDateTime.now());
+        rentalReadCache.evict(rentalIds);
+        if (!inventoryService.releaseReturned(rentalDetailIds, returnedCopies)) {
+            //the stock does not add up with these copies, roll back everything
+            throw new BusinessException("Returning these copies would exceed the stock of a title, nothing was returned");
+        }
+        recordReturns(customerId, rentalDetailIds.size());
+        //one event per rental touched, carrying only the copies returned from it
+        returnedByRental.forEach((rentalId, items) ->
+                outboxWriter.rentalReturned(new RentalEvent(rentalId, customerId, dateReturned, items)));
+        rentalMetrics.copiesReturned(rentalDetailIds.size());
+
+        log.info("Returned {} copies from {} rentals for customer: {}",
+                rentalDetailIds.size(), rentalIds.size(), customerId);
+        return new RentalReturnResultDTO(customerId, dateReturned, rentalDetailIds.size(),
+                new ArrayList<>(rentalIds), rentalDetailIds);
+    }
+
+    private void recordReturns(Long customerId, int copies) {
+        if (customerRentalSummaryRepository.recordReturns(customerId, copies) == 0) {
+            log.warn("Rental summary of customer ID: {} is missing or out of step, summary left unchanged", customerId);
+        }
+    }
 }
@@ -0,0 +1,8 @@
+-- The overdue scan locks this row, so only one instance scans at a time. Creating it on the
+-- first run let two instances starting together both insert it and fail on the primary key.
+INSERT INTO dbo.JobWatermark (JobName, Watermark, WatermarkID, ModifiedDate)
+VALUES (N'OVERDUE_RENTALS', NULL, NULL, SYSDATETIME());
+
+-- The scan now reads every open copy past the cutoff through IX_RentalDetail_Outstanding,
+-- the rental detail id watermark is no longer kept.
+ALTER TABLE dbo.JobWatermark DROP COLUMN WatermarkID;
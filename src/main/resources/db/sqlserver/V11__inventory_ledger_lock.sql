@@ -0,0 +1,4 @@
+-- In ledger mode (app.inventory.mode=ledger) the owning instance keeps this row locked while it
+-- runs; a second instance cannot get the lock and fails at startup.
+INSERT INTO dbo.JobWatermark (JobName, Watermark, ModifiedDate)
+VALUES (N'INVENTORY_LEDGER', NULL, SYSDATETIME());
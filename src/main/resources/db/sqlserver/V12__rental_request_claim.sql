@@ -0,0 +1,5 @@
+-- Owner of a PROCESSING rental request. A node only re-queues its own claims from before it started,
+-- or claims of any node older than app.rental.async.claim-timeout.
+ALTER TABLE dbo.RentalRequest ADD
+    ClaimedBy NVARCHAR(100) NULL,
+    ClaimedAt DATETIME2(6)  NULL;
@@ -0,0 +1,8 @@
+-- Supports keyset paging on GET /api/v1/rentals?cursor= and /api/v1/customers?cursor=
+-- Each page becomes an index seek on (sort key, id) instead of an offset scan.
+
+CREATE NONCLUSTERED INDEX IX_RentalHeader_DateRented_RentalID
+    ON dbo.RentalHeader (DateRented, RentalID);
+
+CREATE NONCLUSTERED INDEX IX_Customer_CustomerName_CustomerID
+    ON dbo.Customer (CustomerName, CustomerID);
@@ -0,0 +1,76 @@
+-- Moves RentalHeader.RentalID and RentalDetail.RentalDetailId from IDENTITY to sequences
+-- so Hibernate can assign ids up front and batch the inserts (see @SequenceGenerator on
+-- RentalHeader and RentalDetail, allocationSize = 50).
+--
+-- SQL Server cannot drop IDENTITY from a column, so each table is switched into an
+-- identical table without IDENTITY. ALTER TABLE ... SWITCH is metadata only, the rows
+-- are not copied. Column types below must match the existing tables exactly.
+-- Run during a maintenance window; the application must be stopped.
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+-- foreign keys must be out of the way for SWITCH and DROP, constraint names vary per install
+DECLARE @dropForeignKeys NVARCHAR(MAX) = N'';
+SELECT @dropForeignKeys += N'ALTER TABLE ' + QUOTENAME(OBJECT_SCHEMA_NAME(fk.parent_object_id)) + N'.'
+        + QUOTENAME(OBJECT_NAME(fk.parent_object_id)) + N' DROP CONSTRAINT ' + QUOTENAME(fk.name) + N';'
+FROM sys.foreign_keys fk
+WHERE fk.parent_object_id IN (OBJECT_ID(N'dbo.RentalHeader'), OBJECT_ID(N'dbo.RentalDetail'))
+   OR fk.referenced_object_id IN (OBJECT_ID(N'dbo.RentalHeader'), OBJECT_ID(N'dbo.RentalDetail'));
+EXEC sp_executesql @dropForeignKeys;
+
+-- the old primary keys are renamed so the new tables can take the PK_ names, existing names vary too
+DECLARE @renamePrimaryKeys NVARCHAR(MAX) = N'';
+SELECT @renamePrimaryKeys += N'EXEC sp_rename N''dbo.' + QUOTENAME(kc.name) + N''', N''' + kc.name + N'_Old'', N''OBJECT'';'
+FROM sys.key_constraints kc
+WHERE kc.type = 'PK'
+  AND kc.parent_object_id IN (OBJECT_ID(N'dbo.RentalHeader'), OBJECT_ID(N'dbo.RentalDetail'));
+EXEC sp_executesql @renamePrimaryKeys;
+
+CREATE TABLE dbo.RentalHeader_New (
+    RentalID     BIGINT       NOT NULL CONSTRAINT PK_RentalHeader PRIMARY KEY CLUSTERED,
+    CustomerID   BIGINT       NOT NULL,
+    DateRented   DATE         NOT NULL,
+    CreatedDate  DATETIME2(6) NOT NULL,
+    ModifiedDate DATETIME2(6) NOT NULL
+);
+CREATE NONCLUSTERED INDEX IX_RentalHeader_DateRented_RentalID
+    ON dbo.RentalHeader_New (DateRented, RentalID);
+
+CREATE TABLE dbo.RentalDetail_New (
+    RentalDetailId BIGINT       NOT NULL CONSTRAINT PK_RentalDetail PRIMARY KEY CLUSTERED,
+    RentalID       BIGINT       NOT NULL,
+    MovieID        BIGINT       NOT NULL,
+    DateReturned   DATE         NULL,
+    CreatedDate    DATETIME2(6) NOT NULL,
+    ModifiedDate   DATETIME2(6) NOT NULL
+);
+
+ALTER TABLE dbo.RentalHeader SWITCH TO dbo.RentalHeader_New;
+ALTER TABLE dbo.RentalDetail SWITCH TO dbo.RentalDetail_New;
+
+DROP TABLE dbo.RentalDetail;
+DROP TABLE dbo.RentalHeader;
+EXEC sp_rename N'dbo.RentalHeader_New', N'RentalHeader';
+EXEC sp_rename N'dbo.RentalDetail_New', N'RentalDetail';
+
+ALTER TABLE dbo.RentalHeader ADD CONSTRAINT FK_RentalHeader_Customer
+    FOREIGN KEY (CustomerID) REFERENCES dbo.Customer (CustomerID);
+ALTER TABLE dbo.RentalDetail ADD CONSTRAINT FK_RentalDetail_RentalHeader
+    FOREIGN KEY (RentalID) REFERENCES dbo.RentalHeader (RentalID);
+ALTER TABLE dbo.RentalDetail ADD CONSTRAINT FK_RentalDetail_Movie
+    FOREIGN KEY (MovieID) REFERENCES dbo.Movie (MovieID);
+
+-- Hibernate's pooled optimizer treats each sequence value as the top of a block of 50,
+-- so the first value handed out must be MAX(id) + 50 for new ids to start at MAX(id) + 1.
+-- CREATE SEQUENCE does not take variables, hence the dynamic SQL.
+DECLARE @rentalHeaderStart BIGINT = (SELECT ISNULL(MAX(RentalID), 0) + 50 FROM dbo.RentalHeader);
+DECLARE @rentalDetailStart BIGINT = (SELECT ISNULL(MAX(RentalDetailId), 0) + 50 FROM dbo.RentalDetail);
+DECLARE @createSequences NVARCHAR(MAX) =
+    N'CREATE SEQUENCE dbo.RentalHeader_SEQ AS BIGINT START WITH ' + CAST(@rentalHeaderStart AS NVARCHAR(20))
+        + N' INCREMENT BY 50 CACHE 20;'
+  + N'CREATE SEQUENCE dbo.RentalDetail_SEQ AS BIGINT START WITH ' + CAST(@rentalDetailStart AS NVARCHAR(20))
+        + N' INCREMENT BY 50 CACHE 20;';
+EXEC sp_executesql @createSequences;
+
+COMMIT TRANSACTION;
@@ -0,0 +1,19 @@
+-- Durable store for asynchronous rentals (POST /api/v1/rentals/async).
+-- Rows in CREATED or PROCESSING are re-queued when the application starts.
+
+CREATE SEQUENCE dbo.RentalRequest_SEQ AS BIGINT START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE dbo.RentalRequest (
+    RentalRequestID BIGINT         NOT NULL CONSTRAINT PK_RentalRequest PRIMARY KEY CLUSTERED,
+    CustomerID      BIGINT         NOT NULL,
+    MovieIDs        NVARCHAR(4000) NOT NULL,
+    DateRented      DATE           NULL,
+    Status          NVARCHAR(20)   NOT NULL,
+    RentalID        BIGINT         NULL,
+    ErrorMessage    NVARCHAR(1000) NULL,
+    CreatedDate     DATETIME2(6)   NOT NULL,
+    ModifiedDate    DATETIME2(6)   NOT NULL
+);
+
+CREATE NONCLUSTERED INDEX IX_RentalRequest_Status
+    ON dbo.RentalRequest (Status);
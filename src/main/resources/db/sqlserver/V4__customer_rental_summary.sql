@@ -0,0 +1,50 @@
+-- Per-customer rental totals behind GET /api/v1/customers/{id}/summary and
+-- GET /api/v1/customers/summaries, maintained by the rental and return transactions.
+-- The backfill reads the rental tables once; run it with the application stopped
+-- so no rental is counted twice or missed.
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+CREATE TABLE dbo.CustomerRentalSummary (
+    CustomerID        BIGINT        NOT NULL CONSTRAINT PK_CustomerRentalSummary PRIMARY KEY CLUSTERED,
+    CustomerName      NVARCHAR(100) NOT NULL,
+    TotalRentals      BIGINT        NOT NULL,
+    OutstandingTitles BIGINT        NOT NULL,
+    LastRentalDate    DATE          NULL,
+    ModifiedDate      DATETIME2(6)  NOT NULL,
+    CONSTRAINT FK_CustomerRentalSummary_Customer
+        FOREIGN KEY (CustomerID) REFERENCES dbo.Customer (CustomerID)
+);
+
+INSERT INTO dbo.CustomerRentalSummary
+    (CustomerID, CustomerName, TotalRentals, OutstandingTitles, LastRentalDate, ModifiedDate)
+SELECT c.CustomerID,
+       c.CustomerName,
+       ISNULL(h.TotalRentals, 0),
+       ISNULL(d.OutstandingTitles, 0),
+       h.LastRentalDate,
+       SYSDATETIME()
+FROM dbo.Customer c
+LEFT JOIN (
+    SELECT CustomerID, COUNT_BIG(*) AS TotalRentals, MAX(DateRented) AS LastRentalDate
+    FROM dbo.RentalHeader
+    GROUP BY CustomerID
+) h ON h.CustomerID = c.CustomerID
+LEFT JOIN (
+    SELECT rh.CustomerID, COUNT_BIG(*) AS OutstandingTitles
+    FROM dbo.RentalHeader rh
+    JOIN dbo.RentalDetail rd ON rd.RentalID = rh.RentalID
+    WHERE rd.DateReturned IS NULL
+    GROUP BY rh.CustomerID
+) d ON d.CustomerID = c.CustomerID;
+
+-- sort keys of the summary list
+CREATE NONCLUSTERED INDEX IX_CustomerRentalSummary_TotalRentals
+    ON dbo.CustomerRentalSummary (TotalRentals, CustomerID);
+CREATE NONCLUSTERED INDEX IX_CustomerRentalSummary_OutstandingTitles
+    ON dbo.CustomerRentalSummary (OutstandingTitles, CustomerID);
+CREATE NONCLUSTERED INDEX IX_CustomerRentalSummary_LastRentalDate
+    ON dbo.CustomerRentalSummary (LastRentalDate, CustomerID);
+
+COMMIT TRANSACTION;
@@ -0,0 +1,11 @@
+-- Heartbeat row for ReplicaLagMonitor (app.datasource.replica.enabled=true).
+-- The application writes the current time here on the primary every heartbeat-interval
+-- and reads it back from the readable secondary; the difference is the replication lag.
+-- The application login needs UPDATE on this table on the primary.
+
+CREATE TABLE dbo.ReplicationHeartbeat (
+    HeartbeatID INT          NOT NULL CONSTRAINT PK_ReplicationHeartbeat PRIMARY KEY CLUSTERED,
+    BeatTime    DATETIME2(6) NOT NULL
+);
+
+INSERT INTO dbo.ReplicationHeartbeat (HeartbeatID, BeatTime) VALUES (1, SYSDATETIME());
@@ -0,0 +1,18 @@
+-- Transactional outbox for rental events, written by OutboxWriter in the rental transaction
+-- and drained by OutboxRelay.
+
+-- IDENTITY on purpose: the relay reads in OutboxEventID order, and an event written after
+-- another one committed must sort after it. Rows live for about one poll interval, so the
+-- table stays small and the clustered key is the only index the relay needs.
+CREATE TABLE dbo.OutboxEvent (
+    OutboxEventID BIGINT        IDENTITY(1,1) NOT NULL CONSTRAINT PK_OutboxEvent PRIMARY KEY CLUSTERED,
+    AggregateType NVARCHAR(50)  NOT NULL,
+    AggregateID   BIGINT        NOT NULL,
+    EventType     NVARCHAR(50)  NOT NULL,
+    Payload       NVARCHAR(MAX) NOT NULL,
+    CreatedDate   DATETIME2(6)  NOT NULL
+);
+
+-- the relays of all instances lock this row, so only one of them publishes at a time
+INSERT INTO dbo.JobWatermark (JobName, Watermark, WatermarkID, ModifiedDate)
+VALUES (N'OUTBOX_RELAY', NULL, NULL, SYSDATETIME());
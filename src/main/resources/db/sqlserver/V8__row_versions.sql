@@ -0,0 +1,18 @@
+-- Version columns for optimistic locking (@Version on RentalHeader, RentalDetail, Movie and Customer).
+-- Hibernate checks and bumps them on entity updates; the bulk statements in MovieRepository,
+-- RentalDetailRepository, RentalHeaderRepository and the stock ledger flush bump them too.
+--
+-- Existing rows start at 0. Adding a NOT NULL column with a constant default is metadata only
+-- on Enterprise edition; other editions rewrite every row, run it in a maintenance window there.
+
+ALTER TABLE dbo.RentalHeader ADD Version BIGINT NOT NULL
+    CONSTRAINT DF_RentalHeader_Version DEFAULT 0;
+
+ALTER TABLE dbo.RentalDetail ADD Version BIGINT NOT NULL
+    CONSTRAINT DF_RentalDetail_Version DEFAULT 0;
+
+ALTER TABLE dbo.Movie ADD Version BIGINT NOT NULL
+    CONSTRAINT DF_Movie_Version DEFAULT 0;
+
+ALTER TABLE dbo.Customer ADD Version BIGINT NOT NULL
+    CONSTRAINT DF_Customer_Version DEFAULT 0;
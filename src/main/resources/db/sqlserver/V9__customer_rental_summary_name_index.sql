@@ -0,0 +1,5 @@
+-- customerName is one of the sort keys of GET /api/v1/customers/summaries but V4 left it
+-- without an index, so sorting by name scanned and sorted the whole summary table.
+
+CREATE NONCLUSTERED INDEX IX_CustomerRentalSummary_CustomerName
+    ON dbo.CustomerRentalSummary (CustomerName, CustomerID);
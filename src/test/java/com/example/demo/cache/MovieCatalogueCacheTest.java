@@ -0,0 +1,98 @@
+package com.example.demo.cache;
+
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+import com.example.demo.repository.MovieRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MovieCatalogueCacheTest {
+
+    private final Long TEST_MOVIE_ID = 1L;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    private MovieCatalogueCache movieCatalogueCache;
+
+    @BeforeEach
+    void setUp() {
+        movieCatalogueCache = new MovieCatalogueCache(movieRepository, 100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep serving the committed name until the edit commits, then reload it")
+    void shouldEvictAfterCommit() {
+        // Given
+        given(movieRepository.findAllByIdWithGenre(List.of(TEST_MOVIE_ID)))
+                .willReturn(List.of(movie("THE MATRIX")))
+                .willReturn(List.of(movie("THE MATRIX RELOADED")));
+        movieCatalogueCache.get(TEST_MOVIE_ID);
+
+        // When - the rename is flushed, a read before its commit must not reload the old row
+        TransactionSynchronizationManager.initSynchronization();
+        movieCatalogueCache.evict(TEST_MOVIE_ID);
+        String beforeCommit = movieCatalogueCache.get(TEST_MOVIE_ID).orElseThrow().getMovieName();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+
+        // Then
+        assertThat(beforeCommit).isEqualTo("THE MATRIX");
+        assertThat(movieCatalogueCache.get(TEST_MOVIE_ID).orElseThrow().getMovieName())
+                .isEqualTo("THE MATRIX RELOADED");
+        verify(movieRepository, times(2)).findAllByIdWithGenre(List.of(TEST_MOVIE_ID));
+    }
+
+    @Test
+    @DisplayName("Should keep the entry when the edit rolls back")
+    void shouldNotEvictOnRollback() {
+        // Given
+        given(movieRepository.findAllByIdWithGenre(List.of(TEST_MOVIE_ID)))
+                .willReturn(List.of(movie("THE MATRIX")));
+        movieCatalogueCache.get(TEST_MOVIE_ID);
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        movieCatalogueCache.evictAll();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        assertThat(movieCatalogueCache.get(TEST_MOVIE_ID)).isPresent();
+        verify(movieRepository, times(1)).findAllByIdWithGenre(List.of(TEST_MOVIE_ID));
+    }
+
+    private Movie movie(String movieName) {
+        return Movie.builder()
+                .movieId(TEST_MOVIE_ID)
+                .movieName(movieName)
+                .genre(Genre.builder().genreId(1L).genreName("ACTION").build())
+                .build();
+    }
+}
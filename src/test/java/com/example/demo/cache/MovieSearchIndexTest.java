@@ -0,0 +1,143 @@
+package com.example.demo.cache;
+
+import com.example.demo.repository.MovieRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MovieSearchIndexTest {
+
+    private static final LocalDateTime MODIFIED = LocalDateTime.now().minusDays(1);
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MovieSearchIndex movieSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        movieSearchIndex = new MovieSearchIndex(movieRepository, transactionManager);
+        given(movieRepository.findSearchDocuments()).willReturn(List.of(
+                document(1L, "THE DARK KNIGHT", "ACTION", 0, MODIFIED),
+                document(2L, "THE DARK KNIGHT RISES", "ACTION", 3, MODIFIED),
+                document(3L, "DARKEST HOUR", "DRAMA", 2, MODIFIED),
+                document(4L, "INCEPTION", "SCI-FI", 1, MODIFIED)));
+        movieSearchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should match every query word as a prefix of a movie or genre word")
+    void shouldMatchTokenPrefixes() {
+        assertThat(ids(movieSearchIndex.search("dark", null, null, 10))).containsExactly(3L, 1L, 2L);
+        assertThat(ids(movieSearchIndex.search("dark kni", null, null, 10))).containsExactly(1L, 2L);
+        assertThat(ids(movieSearchIndex.search("Knight, Rises!", null, null, 10))).containsExactly(2L);
+        assertThat(ids(movieSearchIndex.search("sci", null, null, 10))).containsExactly(4L);
+        assertThat(movieSearchIndex.search("dark matrix", null, null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should filter by genre and availability and cap the result")
+    void shouldFilterAndLimit() {
+        assertThat(ids(movieSearchIndex.search("dark", "action", true, 10))).containsExactly(2L);
+        assertThat(ids(movieSearchIndex.search("dark", null, false, 10))).containsExactly(1L);
+        assertThat(ids(movieSearchIndex.search(null, "Drama", null, 10))).containsExactly(3L);
+        assertThat(movieSearchIndex.search("", null, null, 2)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should re-index a reloaded movie and drop one that no longer exists")
+    void shouldReloadChangedMovies() throws InterruptedException {
+        // Given
+        Thread caller = Thread.currentThread();
+        given(movieRepository.findSearchDocumentsByIdIn(anyCollection())).willAnswer(invocation -> {
+            assertThat(Thread.currentThread()).isNotSameAs(caller);
+            return List.of(document(1L, "BATMAN BEGINS", "ACTION", 2, MODIFIED.plusHours(1)));
+        });
+
+        // When
+        movieSearchIndex.onMoviesChanged(MoviesChangedEvent.of(List.of(1L, 4L)));
+        awaitReloaded();
+
+        // Then - applied by the reloader thread, never the committing one
+        assertThat(ids(movieSearchIndex.search("knight", null, null, 10))).containsExactly(2L);
+        assertThat(ids(movieSearchIndex.search("bat", "action", true, 10))).containsExactly(1L);
+        assertThat(movieSearchIndex.search("inception", null, null, 10)).isEmpty();
+        assertThat(movieSearchIndex.size()).isEqualTo(3);
+        verify(movieRepository).findSearchDocumentsByIdIn(Set.of(1L, 4L));
+    }
+
+    @Test
+    @DisplayName("Should keep the newer version when a stale read arrives late")
+    void shouldIgnoreStaleReload() {
+        // When
+        movieSearchIndex.upsert(document(2L, "THE DARK KNIGHT RISES", "ACTION", 0, MODIFIED.plusMinutes(2)));
+        movieSearchIndex.upsert(document(2L, "THE DARK KNIGHT RISES", "ACTION", 3, MODIFIED.plusMinutes(1)));
+
+        // Then
+        assertThat(movieSearchIndex.search("rises", null, null, 10))
+                .extracting(MovieSearchDocument::getNumberAvailable)
+                .containsExactly(0);
+    }
+
+    @Test
+    @DisplayName("Should fold every change queued during a reload into the next one")
+    void shouldCoalesceQueuedChanges() throws InterruptedException {
+        // Given - the first reload is held inside its query
+        CountDownLatch inQuery = new CountDownLatch(1);
+        CountDownLatch finishQuery = new CountDownLatch(1);
+        given(movieRepository.findSearchDocumentsByIdIn(anyCollection())).willAnswer(invocation -> {
+            inQuery.countDown();
+            assertThat(finishQuery.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of();
+        });
+        movieSearchIndex.onMoviesChanged(MoviesChangedEvent.of(List.of(9L)));
+        assertThat(inQuery.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When - more commits arrive meanwhile
+        movieSearchIndex.onMoviesChanged(MoviesChangedEvent.of(List.of(1L)));
+        movieSearchIndex.onMoviesChanged(MoviesChangedEvent.of(List.of(2L, 3L)));
+        finishQuery.countDown();
+        awaitReloaded();
+
+        // Then - no second reloader was started, the queued ids went out in one query
+        verify(movieRepository).findSearchDocumentsByIdIn(Set.of(9L));
+        verify(movieRepository).findSearchDocumentsByIdIn(Set.of(1L, 2L, 3L));
+        verify(movieRepository, times(2)).findSearchDocumentsByIdIn(anyCollection());
+    }
+
+    //the reloader runs on its own thread
+    private void awaitReloaded() throws InterruptedException {
+        for (int i = 0; i < 500 && movieSearchIndex.isReloading(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(movieSearchIndex.isReloading()).isFalse();
+    }
+
+    private MovieSearchDocument document(Long movieId, String movieName, String genreName, int available,
+                                         LocalDateTime modifiedDate) {
+        return new MovieSearchDocument(movieId, movieName, genreName, 5, available, modifiedDate);
+    }
+
+    private List<Long> ids(List<MovieSearchDocument> documents) {
+        return documents.stream().map(MovieSearchDocument::getMovieId).toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.response.RentalItemDTO;
+import com.example.demo.dto.response.RentalListDTO;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class OffHeapRentalStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Test
+    @DisplayName("Should read back exactly what was written off-heap")
+    void shouldRoundTripOffHeapEncoding() {
+        // Given
+        OffHeapRentalStore offHeapStore = new OffHeapRentalStore(DataSize.ofMegabytes(1), TTL);
+        RentalListDTO rental = rental(4L);
+        rental.getRentDetails().add(new RentalItemDTO(41L, null, null, LocalDate.of(2024, 2, 29)));
+        rental.setModifiedDate(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_789));
+
+        // When
+        offHeapStore.put(rental);
+
+        // Then
+        assertThat(offHeapStore.get(4L)).contains(rental);
+        assertThat(offHeapStore.get(5L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep non-ASCII names intact")
+    void shouldRoundTripUtf8Names() {
+        // Given
+        OffHeapRentalStore offHeapStore = new OffHeapRentalStore(DataSize.ofMegabytes(1), TTL);
+        RentalListDTO rental = new RentalListDTO(6L, "ZO\u00cb \u00c5STR\u00d6M", null, new ArrayList<>(
+                List.of(new RentalItemDTO(61L, "AM\u00c9LIE", "COM\u00c9DIE", null))));
+
+        // When
+        offHeapStore.put(rental);
+
+        // Then
+        assertThat(offHeapStore.get(6L)).contains(rental);
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest rentals once the arena wraps around")
+    void shouldOverwriteOldestOnWraparound() {
+        // Given - room for two encoded rentals
+        OffHeapRentalStore offHeapStore = new OffHeapRentalStore(DataSize.ofBytes(256), TTL);
+
+        // When
+        offHeapStore.put(rental(1L));
+        offHeapStore.put(rental(2L));
+        offHeapStore.put(rental(3L));
+
+        // Then
+        assertThat(offHeapStore.get(1L)).isEmpty();
+        assertThat(offHeapStore.get(2L)).contains(rental(2L));
+        assertThat(offHeapStore.get(3L)).contains(rental(3L));
+        assertThat(offHeapStore.getStats().getEvictionCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should skip a rental larger than the whole arena")
+    void shouldSkipOversizedRental() {
+        // Given
+        OffHeapRentalStore offHeapStore = new OffHeapRentalStore(DataSize.ofBytes(64), TTL);
+
+        // When
+        offHeapStore.put(rental(1L));
+
+        // Then
+        assertThat(offHeapStore.get(1L)).isEmpty();
+    }
+
+    private static RentalListDTO rental(Long rentalId) {
+        List<RentalItemDTO> items = new ArrayList<>();
+        items.add(new RentalItemDTO(rentalId * 10, "THE MATRIX", "ACTION", LocalDate.of(2024, 1, 15)));
+        return new RentalListDTO(rentalId, "JOHN DOE", LocalDate.of(2024, 1, 10), items);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.response.RentalItemDTO;
+import com.example.demo.dto.response.RentalListDTO;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy.VarExpiration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RentalReadCacheTest {
+
+    private static final Duration OPEN_TTL = Duration.ofSeconds(30);
+    private static final Duration CLOSED_TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<OffHeapRentalStore> offHeapStoreProvider;
+
+    private final List<Collection<Long>> loads = new ArrayList<>();
+
+    private final Map<Long, RentalListDTO> database = Map.of(
+            1L, rental(1L, LocalDate.now()),
+            2L, rental(2L, LocalDate.now()),
+            3L, rental(3L, null));
+
+    private final Function<Collection<Long>, Map<Long, RentalListDTO>> loader = rentalIds -> {
+        loads.add(List.copyOf(rentalIds));
+        Map<Long, RentalListDTO> found = new HashMap<>();
+        rentalIds.stream().filter(database::containsKey).forEach(id -> found.put(id, database.get(id)));
+        return found;
+    };
+
+    @BeforeEach
+    void setUp() {
+        loads.clear();
+    }
+
+    @Test
+    @DisplayName("Should keep closed rentals for the closed TTL and open ones for the open TTL")
+    void shouldExpireOnlyOpenRentals() {
+        // Given
+        RentalReadCache rentalReadCache = rentalReadCache(100, null);
+
+        // When
+        rentalReadCache.get(1L, loader);
+        rentalReadCache.get(3L, loader);
+
+        // Then
+        VarExpiration<Long, RentalListDTO> expiry = nativeCache(rentalReadCache).policy().expireVariably().orElseThrow();
+        assertThat(expiry.getExpiresAfter(1L, TimeUnit.SECONDS))
+                .hasValueSatisfying(seconds -> assertThat(seconds).isGreaterThan(30L).isLessThanOrEqualTo(600L));
+        assertThat(expiry.getExpiresAfter(3L, TimeUnit.SECONDS))
+                .hasValueSatisfying(seconds -> assertThat(seconds).isLessThanOrEqualTo(30L));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from memory and reload from the primary after an eviction")
+    void shouldReloadAfterEviction() {
+        // Given
+        RentalReadCache rentalReadCache = rentalReadCache(100, null);
+
+        // When
+        rentalReadCache.get(3L, loader);
+        rentalReadCache.get(3L, loader);
+        rentalReadCache.evict(List.of(3L));
+        rentalReadCache.get(3L, loader);
+
+        // Then
+        assertThat(loads).hasSize(2);
+        assertThat(rentalReadCache.getStats().getHitCount()).isEqualTo(1L);
+        assertThat(rentalReadCache.get(99L, loader)).isEmpty();
+        //a read-only transaction would be routed to a replica that may not have the return yet
+        verify(transactionManager, times(3)).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    @DisplayName("Should move closed rentals pushed out of the heap to the off-heap store")
+    void shouldDemoteClosedRentalsOffHeap() {
+        // Given - room for a single rental on the heap
+        OffHeapRentalStore offHeapStore = new OffHeapRentalStore(DataSize.ofMegabytes(1), CLOSED_TTL);
+        RentalReadCache rentalReadCache = rentalReadCache(1, offHeapStore);
+        rentalReadCache.get(1L, loader);
+        rentalReadCache.get(2L, loader);
+        nativeCache(rentalReadCache).cleanUp();
+
+        // When
+        RentalListDTO first = rentalReadCache.get(1L, loader).orElseThrow();
+        nativeCache(rentalReadCache).cleanUp();
+        RentalListDTO second = rentalReadCache.get(2L, loader).orElseThrow();
+
+        // Then - whichever was pushed out came back from off-heap, not from the loader
+        assertThat(loads).hasSize(2);
+        assertThat(first).isEqualTo(database.get(1L));
+        assertThat(second).isEqualTo(database.get(2L));
+        assertThat(offHeapStore.getStats().getHitCount()).isPositive();
+    }
+
+    private RentalReadCache rentalReadCache(long maximumSize, OffHeapRentalStore offHeapStore) {
+        given(offHeapStoreProvider.getIfAvailable()).willReturn(offHeapStore);
+        return new RentalReadCache(transactionManager, offHeapStoreProvider, maximumSize, OPEN_TTL, CLOSED_TTL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Long, RentalListDTO> nativeCache(RentalReadCache rentalReadCache) {
+        return (Cache<Long, RentalListDTO>) rentalReadCache.getNativeCache();
+    }
+
+    private static RentalListDTO rental(Long rentalId, LocalDate dateReturned) {
+        List<RentalItemDTO> items = new ArrayList<>();
+        items.add(new RentalItemDTO(rentalId * 10, "THE MATRIX", "ACTION", dateReturned));
+        return new RentalListDTO(rentalId, "JOHN DOE", LocalDate.now().minusDays(3), items);
+    }
+}
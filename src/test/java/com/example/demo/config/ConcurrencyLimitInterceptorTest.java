@@ -0,0 +1,90 @@
+package com.example.demo.config;
+
+import com.example.demo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.DispatcherType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ConcurrencyLimitInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitInterceptor interceptor;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ConcurrencyLimitInterceptor(3, 2, Duration.ofMillis(10), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should reject a request with 503 when every slot is taken")
+    void shouldRejectWhenLimitReached() throws Exception {
+        // Given
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/v1/rentals");
+        MockHttpServletRequest second = new MockHttpServletRequest("GET", "/api/v1/rentals");
+        assertThat(interceptor.preHandle(first, response, new Object())).isTrue();
+
+        // When & Then
+        assertThatThrownBy(() -> interceptor.preHandle(second, response, new Object()))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.counter("http.server.requests.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should free the slot when a request completes")
+    void shouldReleaseOnCompletion() throws Exception {
+        // Given
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/v1/rentals");
+        MockHttpServletRequest second = new MockHttpServletRequest("GET", "/api/v1/rentals");
+        interceptor.preHandle(first, response, new Object());
+
+        // When
+        interceptor.afterCompletion(first, response, new Object(), null);
+        interceptor.afterCompletion(first, response, new Object(), null);
+
+        // Then - released exactly once
+        assertThat(interceptor.preHandle(second, response, new Object())).isTrue();
+        assertThat(meterRegistry.get("http.server.requests.permits.available").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should let the closing async dispatch through without a slot")
+    void shouldNotLimitAsyncDispatch() throws Exception {
+        // Given - the export went async and gave its slot back, another request took it
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/api/v1/rentals/export");
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/api/v1/rentals");
+        interceptor.preHandle(export, response, new Object());
+        interceptor.afterConcurrentHandlingStarted(export, response, new Object());
+        interceptor.preHandle(other, response, new Object());
+
+        // When
+        export.setDispatcherType(DispatcherType.ASYNC);
+
+        // Then
+        assertThat(interceptor.preHandle(export, response, new Object())).isTrue();
+        interceptor.afterCompletion(export, response, new Object(), null);
+        assertThat(meterRegistry.get("http.server.requests.permits.available").gauge().value()).isZero();
+        assertThat(meterRegistry.counter("http.server.requests.rejected").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should admit at least one request whatever the pool reserves")
+    void shouldKeepOneSlotWhenPoolIsReserved() throws Exception {
+        // Given
+        ConcurrencyLimitInterceptor reserved =
+                new ConcurrencyLimitInterceptor(4, 10, Duration.ofMillis(10), new SimpleMeterRegistry());
+
+        // When & Then
+        assertThat(reserved.preHandle(new MockHttpServletRequest("GET", "/api/v1/rentals"), response, new Object()))
+                .isTrue();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import com.example.demo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ExportConcurrencyLimitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExportConcurrencyLimit exportConcurrencyLimit;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        exportConcurrencyLimit = new ExportConcurrencyLimit(1, Duration.ofMillis(10), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should reject a second export with 503 while the first one is still streaming")
+    void shouldRejectWhileExportRuns() throws Exception {
+        // Given - the first export went async, its body has not finished
+        exportConcurrencyLimit.limit(outputStream -> outputStream.write('x'));
+
+        // When & Then
+        assertThatThrownBy(() -> exportConcurrencyLimit.limit(outputStream -> outputStream.write('y')))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.counter("rental.export.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should free the slot once the body has written everything")
+    void shouldReleaseWhenBodyFinishes() throws Exception {
+        // Given
+        StreamingResponseBody first = exportConcurrencyLimit.limit(outputStream -> outputStream.write('x'));
+
+        // When
+        first.writeTo(new ByteArrayOutputStream());
+
+        // Then
+        assertThat(exportConcurrencyLimit.limit(outputStream -> outputStream.write('y'))).isNotNull();
+        assertThat(meterRegistry.get("rental.export.permits.available").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should free the slot when the body fails, e.g. the client went away")
+    void shouldReleaseWhenBodyFails() throws Exception {
+        // Given
+        StreamingResponseBody first = exportConcurrencyLimit.limit(outputStream -> {
+            throw new IOException("Broken pipe");
+        });
+
+        // When
+        assertThatThrownBy(() -> first.writeTo(new ByteArrayOutputStream()))
+                .isInstanceOf(IOException.class);
+
+        // Then
+        assertThat(meterRegistry.get("rental.export.permits.available").gauge().value()).isEqualTo(1.0);
+    }
+}
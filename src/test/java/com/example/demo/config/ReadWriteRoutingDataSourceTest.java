@@ -0,0 +1,111 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Two separate H2 databases stand in for the primary and the replica, each knows its own name
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor replicaLagMonitor;
+    private JdbcTemplate routed;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primaryDataSource = database("primary");
+        DataSource replicaDataSource = database("replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        replicaLagMonitor = new ReplicaLagMonitor(primaryDataSource, replicaDataSource,
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+        DataSource dataSource = ReadWriteRoutingDataSource.create(primaryDataSource, replicaDataSource,
+                replicaLagMonitor);
+        routed = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    private DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE ServerName (Name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO ServerName (Name) VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE ReplicationHeartbeat (HeartbeatID INT PRIMARY KEY, BeatTime TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO ReplicationHeartbeat (HeartbeatID, BeatTime) VALUES (1, ?)",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(1)));
+        return dataSource;
+    }
+
+    // What replication would do: copy the primary's heartbeat, optionally some time late
+    private void replicateHeartbeat(Duration delay) {
+        Timestamp beat = primary.queryForObject(ReplicaLagMonitor.READ_BEAT, Timestamp.class);
+        replica.update(ReplicaLagMonitor.WRITE_BEAT,
+                Timestamp.valueOf(beat.toLocalDateTime().minus(delay)));
+    }
+
+    private String serverName(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status ->
+                routed.queryForObject("SELECT Name FROM ServerName", String.class));
+    }
+
+    @Test
+    @DisplayName("Should stay on the primary until the replica heartbeat has been seen")
+    void shouldUsePrimaryBeforeFirstHeartbeat() {
+        // When & Then
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(serverName(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to a replica that keeps up, writes to the primary")
+    void shouldRouteReadOnlyToReplica() {
+        // Given
+        replicaLagMonitor.check();
+        replicateHeartbeat(Duration.ZERO);
+
+        // When
+        replicaLagMonitor.check();
+
+        // Then
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        assertThat(serverName(readOnly)).isEqualTo("replica");
+        assertThat(serverName(readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags behind")
+    void shouldFallBackWhenReplicaLags() {
+        // Given
+        replicaLagMonitor.check();
+        replicateHeartbeat(Duration.ofMinutes(1));
+
+        // When
+        replicaLagMonitor.check();
+
+        // Then
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(serverName(readOnly)).isEqualTo("primary");
+    }
+}
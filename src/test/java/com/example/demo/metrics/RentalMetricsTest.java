@@ -0,0 +1,86 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RentalMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RentalMetrics rentalMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rentalMetrics = new RentalMetrics(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count rentals and returns only once their transaction commits")
+    void shouldCountOnCommit() {
+        // When
+        inTransaction(true, () -> {
+            rentalMetrics.rentalsCreated(1);
+            rentalMetrics.copiesReturned(3);
+            assertThat(meterRegistry.counter("rentals.created").count()).isZero();
+        });
+
+        // Then
+        assertThat(meterRegistry.counter("rentals.created").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("rentals.returned").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should not count an attempt that rolled back, so a retried rental counts once")
+    void shouldNotCountRolledBackAttempt() {
+        // When - the first attempt loses an optimistic lock check, the retry commits
+        inTransaction(false, () -> rentalMetrics.rentalsCreated(1));
+        inTransaction(true, () -> rentalMetrics.rentalsCreated(1));
+
+        // Then
+        assertThat(meterRegistry.counter("rentals.created").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should count right away outside a transaction")
+    void shouldCountWithoutTransaction() {
+        // When
+        rentalMetrics.rentalsCreated(5);
+
+        // Then
+        assertThat(meterRegistry.counter("rentals.created").count()).isEqualTo(5.0);
+    }
+
+    private void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            if (commit) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, commit
+                    ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+}
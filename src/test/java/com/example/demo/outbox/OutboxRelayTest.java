@@ -0,0 +1,135 @@
+package com.example.demo.outbox;
+
+import com.example.demo.entity.JobWatermark;
+import com.example.demo.entity.OutboxEvent;
+import com.example.demo.entity.OutboxEventType;
+import com.example.demo.repository.JobWatermarkRepository;
+import com.example.demo.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private JobWatermarkRepository jobWatermarkRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryOutboxEventSink sink;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        sink = new InMemoryOutboxEventSink();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should publish in id order and delete each batch, polling again while batches are full")
+    void shouldDrainOutboxInBatches() {
+        // Given
+        given(jobWatermarkRepository.findForUpdate(OutboxRelay.JOB_NAME))
+                .willReturn(Optional.of(JobWatermark.builder().jobName(OutboxRelay.JOB_NAME).build()));
+        given(outboxEventRepository.findBatch(any(Pageable.class)))
+                .willReturn(List.of(event(1L), event(2L)))
+                .willReturn(List.of(event(3L)));
+        OutboxRelay relay = relay(sink);
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(sink.getMessages())
+                .extracting(OutboxMessage::getOutboxEventId)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(sink.getMessages())
+                .extracting(OutboxMessage::getEventType)
+                .containsOnly("RENTAL_CREATED");
+        verify(outboxEventRepository).deleteByIds(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteByIds(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(meterRegistry.counter("outbox.events.published").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should keep the batch and roll back when the sink fails")
+    void shouldKeepEventsWhenSinkFails() {
+        // Given
+        given(jobWatermarkRepository.findForUpdate(OutboxRelay.JOB_NAME))
+                .willReturn(Optional.of(JobWatermark.builder().jobName(OutboxRelay.JOB_NAME).build()));
+        given(outboxEventRepository.findBatch(any(Pageable.class)))
+                .willReturn(List.of(event(1L), event(2L)));
+        OutboxRelay relay = relay(messages -> {
+            throw new IllegalStateException("sink down");
+        });
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository, never()).deleteByIds(anyCollection());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertThat(meterRegistry.counter("outbox.events.published").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should create the relay lock row on first use")
+    void shouldCreateLockRowWhenMissing() {
+        // Given
+        given(jobWatermarkRepository.findForUpdate(OutboxRelay.JOB_NAME))
+                .willReturn(Optional.empty());
+        given(outboxEventRepository.findBatch(any(Pageable.class)))
+                .willReturn(List.of());
+
+        // When
+        relay(sink).relay();
+
+        // Then
+        verify(jobWatermarkRepository).saveAndFlush(argThat(watermark ->
+                OutboxRelay.JOB_NAME.equals(watermark.getJobName())));
+        assertThat(sink.getMessages()).isEmpty();
+    }
+
+    private OutboxRelay relay(OutboxEventSink outboxEventSink) {
+        return new OutboxRelay(outboxEventRepository, jobWatermarkRepository, outboxEventSink,
+                new TransactionTemplate(transactionManager), BATCH_SIZE, meterRegistry);
+    }
+
+    private OutboxEvent event(Long outboxEventId) {
+        return OutboxEvent.builder()
+                .outboxEventId(outboxEventId)
+                .aggregateType("Rental")
+                .aggregateId(outboxEventId * 10)
+                .eventType(OutboxEventType.RENTAL_CREATED)
+                .payload("{}")
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.response.CustomerRentalSummaryDTO;
+import com.example.demo.entity.Customer;
+import com.example.demo.entity.CustomerRentalSummary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class CustomerRentalSummaryRepositoryTest {
+
+    @Autowired
+    private CustomerRentalSummaryRepository customerRentalSummaryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long customerId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Customer customer = Customer.builder()
+                    .customerName("SUMMARY CUSTOMER")
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build();
+            entityManager.persist(customer);
+            customerId = customer.getCustomerId();
+
+            entityManager.persist(CustomerRentalSummary.builder()
+                    .customerId(customerId)
+                    .customerName(customer.getCustomerName())
+                    .build());
+        });
+    }
+
+    @Test
+    @DisplayName("Should count rentals and outstanding titles in place")
+    void shouldMaintainCountersInPlace() {
+        // Given
+        LocalDate lastWeek = LocalDate.now().minusDays(7);
+
+        // When - an older rental recorded last must not move the last rental date back
+        transactionTemplate.executeWithoutResult(status -> {
+            customerRentalSummaryRepository.recordRental(customerId, 3, LocalDate.now());
+            customerRentalSummaryRepository.recordRental(customerId, 1, lastWeek);
+            customerRentalSummaryRepository.recordReturns(customerId, 2);
+        });
+        Integer overReturned = transactionTemplate.execute(status ->
+                customerRentalSummaryRepository.recordReturns(customerId, 5));
+
+        // Then
+        CustomerRentalSummaryDTO summary = customerRentalSummaryRepository.findSummaryById(customerId).orElseThrow();
+        assertThat(summary.getTotalRentals()).isEqualTo(2L);
+        assertThat(summary.getOutstandingTitles()).isEqualTo(2L);
+        assertThat(summary.getLastRentalDate()).isEqualTo(LocalDate.now());
+        assertThat(overReturned).isZero();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class MovieRepositoryConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+    private static final int STOCK = 20;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long movieId;
+
+    @BeforeEach
+    void setUp() {
+        movieId = transactionTemplate.execute(status -> {
+            Genre genre = Genre.builder()
+                    .genreName("GENRE " + UUID.randomUUID())
+                    .build();
+            entityManager.persist(genre);
+
+            Movie movie = Movie.builder()
+                    .movieName("NEW RELEASE")
+                    .genre(genre)
+                    .dateAdded(LocalDate.now())
+                    .releaseDate(LocalDate.now())
+                    .numberInStock(STOCK)
+                    .numberAvailable(STOCK)
+                    .build();
+            entityManager.persist(movie);
+            return movie.getMovieId();
+        });
+    }
+
+    @Test
+    @DisplayName("Should never oversell a title under concurrent checkouts")
+    void shouldNeverOversellUnderConcurrentCheckouts() throws Exception {
+        // Given
+        AtomicInteger checkedOut = new AtomicInteger();
+
+        // When
+        runConcurrently(() -> {
+            if (movieRepository.decrementAvailable(movieId, 1) == 1) {
+                checkedOut.incrementAndGet();
+            }
+        });
+
+        // Then
+        assertThat(checkedOut.get()).isEqualTo(STOCK);
+        assertThat(availableCopies()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep stock consistent under mixed checkouts and returns")
+    void shouldKeepStockConsistentUnderMixedLoad() throws Exception {
+        // Given
+        AtomicInteger checkedOut = new AtomicInteger();
+        AtomicInteger returned = new AtomicInteger();
+        AtomicInteger invocation = new AtomicInteger();
+
+        // When
+        runConcurrently(() -> {
+            if (invocation.incrementAndGet() % 2 == 0) {
+                if (movieRepository.incrementAvailable(movieId, 1) == 1) {
+                    returned.incrementAndGet();
+                }
+            } else if (movieRepository.decrementAvailable(movieId, 1) == 1) {
+                checkedOut.incrementAndGet();
+            }
+        });
+
+        // Then
+        int available = availableCopies();
+        assertThat(available).isBetween(0, STOCK);
+        assertThat(available).isEqualTo(STOCK - checkedOut.get() + returned.get());
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                        task.run();
+                        assertThat(availableCopies()).isBetween(0, STOCK);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int availableCopies() {
+        return movieRepository.findById(movieId)
+                .map(Movie::getNumberAvailable)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Customer;
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class OptimisticLockingTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long customerId;
+    private Long movieId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = Genre.builder()
+                    .genreName("GENRE " + UUID.randomUUID())
+                    .build();
+            entityManager.persist(genre);
+
+            Movie movie = Movie.builder()
+                    .movieName("VERSIONED RELEASE")
+                    .genre(genre)
+                    .dateAdded(LocalDate.now())
+                    .releaseDate(LocalDate.now())
+                    .numberInStock(5)
+                    .numberAvailable(5)
+                    .build();
+            entityManager.persist(movie);
+            movieId = movie.getMovieId();
+
+            Customer customer = Customer.builder()
+                    .customerName("VERSIONED CUSTOMER")
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build();
+            entityManager.persist(customer);
+            customerId = customer.getCustomerId();
+        });
+    }
+
+    @Test
+    @DisplayName("Should reject an update made from a stale copy instead of overwriting")
+    void shouldRejectStaleUpdate() {
+        // Given - two callers read the same version
+        Customer first = customerRepository.findById(customerId).orElseThrow();
+        Customer second = customerRepository.findById(customerId).orElseThrow();
+
+        // When - the first one wins
+        first.setCustomerName("FIRST WRITER");
+        customerRepository.saveAndFlush(first);
+        second.setCustomerName("SECOND WRITER");
+
+        // Then
+        assertThatThrownBy(() -> customerRepository.saveAndFlush(second))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        Customer stored = customerRepository.findById(customerId).orElseThrow();
+        assertThat(stored.getCustomerName()).isEqualTo("FIRST WRITER");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should bump the version in the bulk stock updates")
+    void shouldBumpVersionInBulkUpdates() {
+        // Given
+        Long before = movieRepository.findById(movieId).map(Movie::getVersion).orElseThrow();
+
+        // When
+        movieRepository.decrementAvailable(movieId, 1);
+        movieRepository.incrementAvailable(movieId, 1);
+
+        // Then - a copy read before the stock changes can no longer be written back
+        assertThat(movieRepository.findById(movieId).map(Movie::getVersion)).contains(before + 2);
+    }
+}
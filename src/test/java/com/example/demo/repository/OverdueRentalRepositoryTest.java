@@ -0,0 +1,142 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Customer;
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+import com.example.demo.entity.RentalDetail;
+import com.example.demo.entity.RentalHeader;
+import com.example.demo.repository.OverdueRentalRepository.OverdueRentalRow;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class OverdueRentalRepositoryTest {
+
+    @Autowired
+    private OverdueRentalRepository overdueRentalRepository;
+
+    @Autowired
+    private RentalDetailRepository rentalDetailRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long lastMonthDetailId;
+    private Long lastWeekDetailId;
+    private Long returnedDetailId;
+
+    @BeforeEach
+    void setUp() {
+        // one copy out since last month, one out since last week, one already returned
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = Genre.builder()
+                    .genreName("GENRE " + UUID.randomUUID())
+                    .build();
+            entityManager.persist(genre);
+
+            Movie movie = Movie.builder()
+                    .movieName("LATE FEE")
+                    .genre(genre)
+                    .dateAdded(LocalDate.now())
+                    .releaseDate(LocalDate.now())
+                    .numberInStock(5)
+                    .numberAvailable(3)
+                    .build();
+            entityManager.persist(movie);
+
+            Customer customer = Customer.builder()
+                    .customerName("OVERDUE CUSTOMER")
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build();
+            entityManager.persist(customer);
+
+            lastMonthDetailId = persistRental(customer, movie, LocalDate.now().minusDays(30), null);
+            lastWeekDetailId = persistRental(customer, movie, LocalDate.now().minusDays(7), null);
+            returnedDetailId = persistRental(customer, movie, LocalDate.now().minusDays(30), LocalDate.now());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        overdueRentalRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should record only open copies past the cutoff, once")
+    void shouldRecordOpenCopiesPastCutoff() {
+        // When
+        LocalDate cutoff = LocalDate.now().minusDays(8);
+        transactionTemplate.executeWithoutResult(status ->
+                overdueRentalRepository.insertOverdue(cutoff));
+        boolean lastWeekBeforeItIsDue = overdueRentalRepository.existsById(lastWeekDetailId);
+
+        // a second pass must not trip over rows it already recorded
+        transactionTemplate.executeWithoutResult(status ->
+                overdueRentalRepository.insertOverdue(cutoff));
+        transactionTemplate.executeWithoutResult(status ->
+                overdueRentalRepository.insertOverdue(LocalDate.now().minusDays(7)));
+
+        // Then
+        assertThat(lastWeekBeforeItIsDue).isFalse();
+        assertThat(overdueRentalRepository.existsById(lastMonthDetailId)).isTrue();
+        assertThat(overdueRentalRepository.existsById(lastWeekDetailId)).isTrue();
+        assertThat(overdueRentalRepository.existsById(returnedDetailId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should pick up back-dated rentals and drop copies once returned")
+    void shouldCatchBackdatedRentalsAndSweepReturns() {
+        // Given - a rental entered today for last month is already past any earlier cutoff
+        transactionTemplate.executeWithoutResult(status ->
+                overdueRentalRepository.insertOverdue(LocalDate.now().minusDays(8)));
+        boolean recorded = overdueRentalRepository.existsById(lastMonthDetailId);
+
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                rentalDetailRepository.markReturned(List.of(lastMonthDetailId), LocalDate.now()));
+        List<OverdueRentalRow> beforeSweep = overdueRentalRepository.findOutstanding(PageRequest.of(0, 100)).getContent();
+        Integer swept = transactionTemplate.execute(status -> overdueRentalRepository.deleteReturned());
+
+        // Then
+        assertThat(recorded).isTrue();
+        assertThat(overdueRentalRepository.existsById(lastWeekDetailId)).isFalse();
+        assertThat(beforeSweep).extracting(OverdueRentalRow::getRentalDetailId).doesNotContain(lastMonthDetailId);
+        assertThat(swept).isPositive();
+        assertThat(overdueRentalRepository.existsById(lastMonthDetailId)).isFalse();
+    }
+
+    private Long persistRental(Customer customer, Movie movie, LocalDate dateRented, LocalDate dateReturned) {
+        RentalHeader rentalHeader = RentalHeader.builder()
+                .customer(customer)
+                .dateRented(dateRented)
+                .build();
+        RentalDetail rentalDetail = RentalDetail.builder()
+                .movie(movie)
+                .dateReturned(dateReturned)
+                .build();
+        rentalHeader.addRentalDetail(rentalDetail);
+        entityManager.persist(rentalHeader);
+        return rentalDetail.getRentalDetailId();
+    }
+}
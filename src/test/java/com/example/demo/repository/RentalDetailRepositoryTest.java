@@ -0,0 +1,171 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Customer;
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+import com.example.demo.entity.RentalDetail;
+import com.example.demo.entity.RentalHeader;
+import com.example.demo.repository.MovieRepository.MovieStockRow;
+import com.example.demo.repository.RentalDetailRepository.OutstandingRentalDetail;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class RentalDetailRepositoryTest {
+
+    private static final int STOCK = 5;
+
+    @Autowired
+    private RentalDetailRepository rentalDetailRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long customerId;
+    private Long movieId;
+
+    @BeforeEach
+    void setUp() {
+        // three copies out: one rented last week, two rented yesterday
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = Genre.builder()
+                    .genreName("GENRE " + UUID.randomUUID())
+                    .build();
+            entityManager.persist(genre);
+
+            Movie movie = Movie.builder()
+                    .movieName("DROP BOX")
+                    .genre(genre)
+                    .dateAdded(LocalDate.now())
+                    .releaseDate(LocalDate.now())
+                    .numberInStock(STOCK)
+                    .numberAvailable(STOCK - 3)
+                    .build();
+            entityManager.persist(movie);
+            movieId = movie.getMovieId();
+
+            Customer customer = Customer.builder()
+                    .customerName("DROP BOX CUSTOMER")
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build();
+            entityManager.persist(customer);
+            customerId = customer.getCustomerId();
+
+            persistRental(customer, movie, LocalDate.now().minusDays(7), 1);
+            persistRental(customer, movie, LocalDate.now().minusDays(1), 2);
+        });
+    }
+
+    @Test
+    @DisplayName("Should list outstanding copies oldest rental first")
+    void shouldFindOutstandingOldestFirst() {
+        // When
+        List<OutstandingRentalDetail> outstanding =
+                rentalDetailRepository.findOutstanding(customerId, List.of(movieId), null);
+        List<OutstandingRentalDetail> yesterday =
+                rentalDetailRepository.findOutstanding(customerId, List.of(movieId), LocalDate.now().minusDays(1));
+
+        // Then
+        assertThat(outstanding).hasSize(3);
+        assertThat(outstanding.get(0).getRentalId()).isNotEqualTo(outstanding.get(1).getRentalId());
+        assertThat(yesterday).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should close copies and restore stock per title in set-based statements")
+    void shouldReturnCopiesInBulk() {
+        // Given
+        List<Long> rentalDetailIds = rentalDetailRepository.findOutstanding(customerId, List.of(movieId), null)
+                .stream()
+                .limit(2)
+                .map(OutstandingRentalDetail::getRentalDetailId)
+                .collect(Collectors.toList());
+
+        // When
+        Integer closed = transactionTemplate.execute(status -> {
+            int updated = rentalDetailRepository.markReturned(rentalDetailIds, LocalDate.now());
+            assertThat(movieRepository.incrementAvailableForRentalDetails(rentalDetailIds)).isEqualTo(1);
+            return updated;
+        });
+        Integer closedAgain = transactionTemplate.execute(status ->
+                rentalDetailRepository.markReturned(rentalDetailIds, LocalDate.now()));
+
+        // Then
+        assertThat(closed).isEqualTo(2);
+        assertThat(closedAgain).isZero();
+        assertThat(rentalDetailRepository.findOutstanding(customerId, List.of(movieId), null)).hasSize(1);
+        assertThat(movieRepository.findById(movieId).map(Movie::getNumberAvailable)).contains(STOCK - 1);
+    }
+
+    @Test
+    @DisplayName("Should skip a title the bulk return would push above its stock")
+    void shouldNotRestoreStockAboveInStock() {
+        // Given - every copy out is put back once
+        List<Long> rentalDetailIds = rentalDetailRepository.findOutstanding(customerId, List.of(movieId), null)
+                .stream()
+                .map(OutstandingRentalDetail::getRentalDetailId)
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status ->
+                movieRepository.incrementAvailableForRentalDetails(rentalDetailIds));
+
+        // When - the same copies come back a second time
+        Integer updated = transactionTemplate.execute(status ->
+                movieRepository.incrementAvailableForRentalDetails(rentalDetailIds));
+
+        // Then
+        assertThat(updated).isZero();
+        assertThat(movieRepository.findById(movieId).map(Movie::getNumberAvailable)).contains(STOCK);
+    }
+
+    @Test
+    @DisplayName("Should count the copies still out per title for the stock ledger")
+    void shouldReadStockRow() {
+        // When
+        MovieStockRow row = movieRepository.findStockRow(movieId).orElseThrow();
+
+        // Then
+        assertThat(row.getNumberInStock()).isEqualTo(STOCK);
+        assertThat(row.getNumberAvailable()).isEqualTo(STOCK - 3);
+        assertThat(row.getOutstanding()).isEqualTo(3L);
+        assertThat(movieRepository.findStockRows())
+                .filteredOn(stock -> stock.getMovieId().equals(movieId))
+                .extracting(MovieStockRow::getOutstanding)
+                .containsExactly(3L);
+    }
+
+    private void persistRental(Customer customer, Movie movie, LocalDate dateRented, int copies) {
+        RentalHeader rentalHeader = RentalHeader.builder()
+                .customer(customer)
+                .dateRented(dateRented)
+                .build();
+        for (int i = 0; i < copies; i++) {
+            rentalHeader.addRentalDetail(RentalDetail.builder()
+                    .movie(movie)
+                    .build());
+        }
+        entityManager.persist(rentalHeader);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Customer;
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+import com.example.demo.entity.RentalDetail;
+import com.example.demo.entity.RentalHeader;
+import com.example.demo.repository.RentalHeaderRepository.RentalRow;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class RentalHeaderRepositoryTest {
+
+    private static final int DETAILS = 3;
+
+    @Autowired
+    private RentalHeaderRepository rentalHeaderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long customerId;
+    private Long movieId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = Genre.builder()
+                    .genreName("GENRE " + UUID.randomUUID())
+                    .build();
+            entityManager.persist(genre);
+
+            Movie movie = Movie.builder()
+                    .movieName("BATCHED RELEASE")
+                    .genre(genre)
+                    .dateAdded(LocalDate.now())
+                    .releaseDate(LocalDate.now())
+                    .numberInStock(10)
+                    .numberAvailable(10)
+                    .build();
+            entityManager.persist(movie);
+            movieId = movie.getMovieId();
+
+            Customer customer = Customer.builder()
+                    .customerName("BATCH CUSTOMER")
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build();
+            entityManager.persist(customer);
+            customerId = customer.getCustomerId();
+        });
+    }
+
+    @Test
+    @DisplayName("Should assign header and detail ids on save before anything is flushed")
+    void shouldAssignIdsBeforeFlush() {
+        // When
+        RentalHeader saved = transactionTemplate.execute(status -> {
+            RentalHeader rentalHeader = RentalHeader.builder()
+                    .customer(entityManager.getReference(Customer.class, customerId))
+                    .dateRented(LocalDate.now())
+                    .build();
+            for (int i = 0; i < DETAILS; i++) {
+                rentalHeader.addRentalDetail(RentalDetail.builder()
+                        .movie(entityManager.getReference(Movie.class, movieId))
+                        .build());
+            }
+            RentalHeader result = rentalHeaderRepository.save(rentalHeader);
+
+            // Then - sequence ids are known without an INSERT having run
+            assertThat(result.getRentalId()).isNotNull();
+            assertThat(result.getRentalDetails())
+                    .extracting(RentalDetail::getRentalDetailId)
+                    .doesNotContainNull()
+                    .doesNotHaveDuplicates();
+            return result;
+        });
+
+        // Then
+        RentalHeader reloaded = rentalHeaderRepository.findByIdWithDetails(saved.getRentalId()).orElseThrow();
+        List<Long> detailIds = saved.getRentalDetails().stream()
+                .map(RentalDetail::getRentalDetailId)
+                .toList();
+        assertThat(reloaded.getRentalDetails())
+                .extracting(RentalDetail::getRentalDetailId)
+                .containsExactlyInAnyOrderElementsOf(detailIds);
+    }
+
+    @Test
+    @DisplayName("Should read a rental as flat rows without loading entities into the session")
+    void shouldReadRentalRowsWithoutEntities() {
+        // Given
+        Long rentalId = transactionTemplate.execute(status -> {
+            RentalHeader rentalHeader = RentalHeader.builder()
+                    .customer(entityManager.getReference(Customer.class, customerId))
+                    .dateRented(LocalDate.now())
+                    .build();
+            for (int i = 0; i < DETAILS; i++) {
+                rentalHeader.addRentalDetail(RentalDetail.builder()
+                        .movie(entityManager.getReference(Movie.class, movieId))
+                        .build());
+            }
+            return rentalHeaderRepository.save(rentalHeader).getRentalId();
+        });
+
+        // When
+        List<RentalRow> rows = transactionTemplate.execute(status -> {
+            List<RentalRow> result = rentalHeaderRepository.findRentalRowsByIdIn(List.of(rentalId));
+
+            // Then - nothing was hydrated, so there is nothing to dirty-check
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+            return result;
+        });
+
+        // Then
+        assertThat(rows).hasSize(DETAILS);
+        assertThat(rows).extracting(RentalRow::getCustomerName).containsOnly("BATCH CUSTOMER");
+        assertThat(rows).extracting(RentalRow::getMovieId).containsOnly(movieId);
+        assertThat(rows).extracting(RentalRow::getRentalDetailId).isSorted();
+    }
+
+    @Test
+    @DisplayName("Should move the rows' last modified forward when the header is touched")
+    void shouldMoveLastModifiedForward() {
+        // Given
+        Long rentalId = transactionTemplate.execute(status -> rentalHeaderRepository.save(RentalHeader.builder()
+                .customer(entityManager.getReference(Customer.class, customerId))
+                .dateRented(LocalDate.now())
+                .build()).getRentalId());
+        LocalDateTime before = rentalHeaderRepository.findRentalRowsByIdIn(List.of(rentalId))
+                .get(0).getLastModified();
+        LocalDateTime modifiedDate = before.plusSeconds(1);
+
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                rentalHeaderRepository.touchModifiedDate(List.of(rentalId), modifiedDate));
+
+        // Then - the header carries exactly the application's timestamp
+        RentalRow after = rentalHeaderRepository.findRentalRowsByIdIn(List.of(rentalId)).get(0);
+        assertThat(after.getLastModified()).isAfter(before);
+        assertThat(after.getModifiedDate()).isEqualTo(modifiedDate);
+        assertThat(after.getCustomerModifiedDate()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should seek past the cursor in (dateRented, rentalId) order")
+    void shouldSeekByDateThenId() {
+        // Given - two rentals share a date no other test uses, a third follows a day later
+        LocalDate dateRented = LocalDate.of(1901, 1, 1);
+        List<Long> rentalIds = transactionTemplate.execute(status -> List.of(
+                saveRental(dateRented.plusDays(1)),
+                saveRental(dateRented),
+                saveRental(dateRented)));
+        Long nextDay = rentalIds.get(0);
+        Long first = rentalIds.get(1);
+        Long second = rentalIds.get(2);
+
+        // When
+        List<Long> afterFirst = rentalHeaderRepository.findRentalIdsAfter(dateRented, first, PageRequest.of(0, 2));
+        List<Long> afterSecond = rentalHeaderRepository.findRentalIdsAfter(dateRented, second, PageRequest.of(0, 1));
+
+        // Then - the id breaks the tie on the same date, then the date moves on, whatever the ids
+        assertThat(afterFirst).containsExactly(second, nextDay);
+        assertThat(afterSecond).containsExactly(nextDay);
+    }
+
+    private Long saveRental(LocalDate dateRented) {
+        return rentalHeaderRepository.save(RentalHeader.builder()
+                .customer(entityManager.getReference(Customer.class, customerId))
+                .dateRented(dateRented)
+                .build()).getRentalId();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.RentalRequest;
+import com.example.demo.entity.RentalRequestStatus;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class RentalRequestRepositoryTest {
+
+    private static final long CLAIM_TIMEOUT_MINUTES = 5;
+
+    @Autowired
+    private RentalRequestRepository rentalRequestRepository;
+
+    @Test
+    @DisplayName("Should leave a live node's claim alone when another node starts")
+    void shouldNotTakeOverLiveClaim() {
+        // Given - node A claimed the request a moment ago, node B starts next to it
+        String nodeA = "node-a-" + UUID.randomUUID();
+        String nodeB = "node-b-" + UUID.randomUUID();
+        LocalDateTime now = now();
+        Long rentalRequestId = claimedRequest(nodeA, now.minusSeconds(1));
+
+        // When
+        rentalRequestRepository.releaseAbandoned(nodeB, now, now.minusMinutes(CLAIM_TIMEOUT_MINUTES));
+
+        // Then - A still owns it and completes it, nothing is left for B to claim
+        assertThat(rentalRequestRepository.findById(rentalRequestId).orElseThrow().getStatus())
+                .isEqualTo(RentalRequestStatus.PROCESSING);
+        assertThat(rentalRequestRepository.claim(rentalRequestId, nodeB, now)).isZero();
+        assertThat(rentalRequestRepository.complete(rentalRequestId, 42L, nodeA, now.minusSeconds(1))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let another node take over a stale claim and reject the old owner's completion")
+    void shouldTakeOverStaleClaim() {
+        // Given - node A claimed the request long ago and stopped answering
+        String nodeA = "node-a-" + UUID.randomUUID();
+        String nodeB = "node-b-" + UUID.randomUUID();
+        LocalDateTime now = now();
+        LocalDateTime claimedByA = now.minusMinutes(CLAIM_TIMEOUT_MINUTES + 1);
+        Long rentalRequestId = claimedRequest(nodeA, claimedByA);
+
+        // When
+        rentalRequestRepository.releaseAbandoned(nodeB, now, now.minusMinutes(CLAIM_TIMEOUT_MINUTES));
+
+        // Then - B claims and completes it, A's late completion matches nothing
+        assertThat(rentalRequestRepository.claim(rentalRequestId, nodeB, now)).isEqualTo(1);
+        assertThat(rentalRequestRepository.complete(rentalRequestId, 41L, nodeA, claimedByA)).isZero();
+        assertThat(rentalRequestRepository.fail(rentalRequestId, "late", nodeA, claimedByA)).isZero();
+        assertThat(rentalRequestRepository.complete(rentalRequestId, 42L, nodeB, now)).isEqualTo(1);
+        assertThat(rentalRequestRepository.findById(rentalRequestId).orElseThrow().getRentalId()).isEqualTo(42L);
+    }
+
+    @Test
+    @DisplayName("Should release a node's own claims from before it restarted")
+    void shouldReleaseOwnClaimsAfterRestart() {
+        // Given - node A claimed the request, then restarted
+        String nodeA = "node-a-" + UUID.randomUUID();
+        LocalDateTime claimedAt = now().minusSeconds(10);
+        Long rentalRequestId = claimedRequest(nodeA, claimedAt);
+        LocalDateTime startedAt = now();
+
+        // When
+        rentalRequestRepository.releaseAbandoned(nodeA, startedAt, startedAt.minusMinutes(CLAIM_TIMEOUT_MINUTES));
+
+        // Then
+        RentalRequest released = rentalRequestRepository.findById(rentalRequestId).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(RentalRequestStatus.CREATED);
+        assertThat(released.getClaimedBy()).isNull();
+        assertThat(rentalRequestRepository.findIdsByStatusIn(List.of(RentalRequestStatus.CREATED)))
+                .contains(rentalRequestId);
+    }
+
+    //saved as already claimed, so the application's own workers never see it CREATED
+    private Long claimedRequest(String claimedBy, LocalDateTime claimedAt) {
+        return rentalRequestRepository.save(RentalRequest.builder()
+                .customerId(1L)
+                .movieIds(List.of(1L))
+                .status(RentalRequestStatus.PROCESSING)
+                .claimedBy(claimedBy)
+                .claimedAt(claimedAt)
+                .build()).getRentalRequestId();
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Customer;
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    private static final int STOCK = 5;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long customerId;
+    private Long genreId;
+    private Long movieId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate.executeWithoutResult(status -> {
+            Genre genre = Genre.builder()
+                    .genreName("GENRE " + UUID.randomUUID())
+                    .build();
+            entityManager.persist(genre);
+            genreId = genre.getGenreId();
+
+            Movie movie = Movie.builder()
+                    .movieName("CACHED FEATURE")
+                    .genre(genre)
+                    .dateAdded(LocalDate.now())
+                    .releaseDate(LocalDate.now())
+                    .numberInStock(STOCK)
+                    .numberAvailable(STOCK)
+                    .build();
+            entityManager.persist(movie);
+            movieId = movie.getMovieId();
+
+            Customer customer = Customer.builder()
+                    .customerName("CACHED CUSTOMER")
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build();
+            entityManager.persist(customer);
+            customerId = customer.getCustomerId();
+        });
+    }
+
+    @Test
+    @DisplayName("Should load a customer from the second-level cache without SQL")
+    void shouldReadCustomerFromCache() {
+        // Given - first load fills the region if the insert did not
+        transactionTemplate.execute(status -> entityManager.find(Customer.class, customerId));
+        statistics.clear();
+
+        // When
+        Customer customer = transactionTemplate.execute(status -> entityManager.find(Customer.class, customerId));
+
+        // Then
+        assertThat(customer.getCustomerName()).isEqualTo("CACHED CUSTOMER");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load a genre from the second-level cache without SQL")
+    void shouldReadGenreFromCache() {
+        // Given
+        transactionTemplate.execute(status -> entityManager.find(Genre.class, genreId));
+        statistics.clear();
+
+        // When
+        Genre genre = transactionTemplate.execute(status -> entityManager.find(Genre.class, genreId));
+
+        // Then
+        assertThat(genre.getGenreName()).startsWith("GENRE ");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Genre.class.getName()).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should accept a genre rename and serve the new name from the cache")
+    void shouldUpdateCachedGenre() {
+        // Given
+        transactionTemplate.execute(status -> entityManager.find(Genre.class, genreId));
+        String renamed = ("RENAMED " + UUID.randomUUID()).toUpperCase();
+
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Genre.class, genreId).setGenreName(renamed));
+        Genre genre = transactionTemplate.execute(status -> entityManager.find(Genre.class, genreId));
+
+        // Then
+        assertThat(genre.getGenreName()).isEqualTo(renamed);
+    }
+
+    @Test
+    @DisplayName("Should keep movies out of the cache and read stock after a bulk update")
+    void shouldReadMovieStockFromDatabase() {
+        // Given
+        transactionTemplate.execute(status -> entityManager.find(Movie.class, movieId));
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> movieRepository.decrementAvailable(movieId, 2));
+        Movie movie = transactionTemplate.execute(status -> entityManager.find(Movie.class, movieId));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Movie.class, movieId)).isFalse();
+        assertThat(movie.getNumberAvailable()).isEqualTo(STOCK - 2);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConflictRetryAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConflictRetryAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new ConflictRetryAspect(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(2));
+    }
+
+    @Test
+    @DisplayName("Should re-run the method after a lost optimistic lock and count the retry")
+    void shouldRetryAfterConflict() throws Throwable {
+        // Given
+        givenSignature();
+        given(joinPoint.proceed())
+                .willThrow(conflict())
+                .willReturn("RESULT");
+
+        // When
+        Object result = aspect.retryOnConflict(joinPoint);
+
+        // Then
+        assertThat(result).isEqualTo("RESULT");
+        verify(joinPoint, times(2)).proceed();
+        assertThat(conflicts("retried")).isEqualTo(1.0);
+        assertThat(conflicts("exhausted")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give up after the last attempt and rethrow the conflict")
+    void shouldRethrowWhenAttemptsAreExhausted() throws Throwable {
+        // Given
+        givenSignature();
+        given(joinPoint.proceed()).willThrow(conflict());
+
+        // When & Then
+        assertThatThrownBy(() -> aspect.retryOnConflict(joinPoint))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(joinPoint, times(3)).proceed();
+        assertThat(conflicts("retried")).isEqualTo(2.0);
+        assertThat(conflicts("exhausted")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should leave the retry to the caller when a transaction is already active")
+    void shouldNotRetryInsideCallerTransaction() throws Throwable {
+        // Given
+        given(joinPoint.proceed()).willThrow(conflict());
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When & Then
+        try {
+            assertThatThrownBy(() -> aspect.retryOnConflict(joinPoint))
+                    .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verify(joinPoint, times(1)).proceed();
+        assertThat(meterRegistry.find(ConflictRetryAspect.CONFLICTS).counters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the jittered backoff under the cap")
+    void shouldCapBackoff() {
+        // When & Then
+        for (int attempt = 1; attempt <= 30; attempt++) {
+            assertThat(aspect.backoff(attempt)).isBetween(0L, 2L);
+        }
+    }
+
+    private void givenSignature() {
+        given(joinPoint.getSignature()).willReturn(signature);
+        given(signature.getDeclaringType()).willReturn(ConflictRetryAspectTest.class);
+        given(signature.getName()).willReturn("update");
+    }
+
+    private ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("Customer", 1L);
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.counter(ConflictRetryAspect.CONFLICTS,
+                "operation", "ConflictRetryAspectTest.update", "outcome", outcome).count();
+    }
+}
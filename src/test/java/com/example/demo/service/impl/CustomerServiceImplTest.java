@@ -1,10 +1,17 @@
 package com.example.demo.service.impl;
 
+import com.example.demo.cache.CustomerCache;
+import com.example.demo.cache.RentalReadCache;
 import com.example.demo.dto.request.CustomerUpdateDTO;
+import com.example.demo.dto.request.KeysetCursor;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.CustomerListDTO;
+import com.example.demo.dto.response.CustomerRentalSummaryDTO;
 import com.example.demo.entity.Customer;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.ValidationException;
+import com.example.demo.repository.CustomerRentalSummaryRepository;
 import com.example.demo.repository.CustomerRepository;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +19,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -33,7 +40,13 @@ public class CustomerServiceImplTest {
     @Mock
     private CustomerRepository customerRepository;
 
-    @InjectMocks
+    @Mock
+    private CustomerRentalSummaryRepository customerRentalSummaryRepository;
+
+    @Mock
+    private RentalReadCache rentalReadCache;
+
+    private CustomerCache customerCache;
     private CustomerServiceImpl customerService;
 
     private Customer testCustomer;
@@ -46,6 +59,10 @@ public class CustomerServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        customerCache = new CustomerCache(customerRepository, 100, Duration.ofMinutes(30));
+        customerService = new CustomerServiceImpl(customerRepository, customerRentalSummaryRepository, customerCache,
+                rentalReadCache);
+
         // Setup test customer entity
         testCustomer = Customer.builder()
                 .customerId(TEST_CUSTOMER_ID)
@@ -76,7 +93,7 @@ public class CustomerServiceImplTest {
         void shouldReturnPaginatedCustomers() {
             // Given
             Pageable pageable = PageRequest.of(0, 10, Sort.by("customerName"));
-            Page<Customer> customerPage = new PageImpl<>(List.of(testCustomer), pageable, 1);
+            Page<CustomerListDTO> customerPage = new PageImpl<>(List.of(testCustomerDTO), pageable, 1);
             
             given(customerRepository.findAllCustomers(pageable)).willReturn(customerPage);
 
@@ -97,7 +114,7 @@ public class CustomerServiceImplTest {
         void shouldReturnEmptyPage() {
             // Given
             Pageable pageable = PageRequest.of(0, 10);
-            Page<Customer> emptyPage = Page.empty();
+            Page<CustomerListDTO> emptyPage = Page.empty();
             
             given(customerRepository.findAllCustomers(pageable)).willReturn(emptyPage);
 
@@ -110,6 +127,58 @@ public class CustomerServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Get Customers After Cursor Tests")
+    class GetCustomersAfterTests {
+
+        @Test
+        @DisplayName("Should return first page with a continuation cursor")
+        void shouldReturnFirstPageWithCursor() {
+            // Given
+            CustomerListDTO secondCustomer = new CustomerListDTO(
+                    2L, "MARY JANE", false, VALID_BIRTHDATE, TEST_CREATED_DATE, TEST_MODIFIED_DATE);
+
+            given(customerRepository.findFirstCustomers(PageRequest.of(0, 2)))
+                    .willReturn(List.of(testCustomerDTO, secondCustomer));
+
+            // When
+            CursorPageResponse<CustomerListDTO> result = customerService.getCustomersAfter("", 1);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.isHasNext()).isTrue();
+            assertThat(KeysetCursor.decode(result.getNextCursor()))
+                    .isEqualTo(new KeysetCursor("JOHN DOE", TEST_CUSTOMER_ID));
+        }
+
+        @Test
+        @DisplayName("Should seek past the cursor without a next cursor on the last page")
+        void shouldSeekPastCursor() {
+            // Given
+            String cursor = new KeysetCursor("JOHN DOE", TEST_CUSTOMER_ID).encode();
+
+            given(customerRepository.findCustomersAfter("JOHN DOE", TEST_CUSTOMER_ID, PageRequest.of(0, 11)))
+                    .willReturn(List.of());
+
+            // When
+            CursorPageResponse<CustomerListDTO> result = customerService.getCustomersAfter(cursor, 10);
+
+            // Then
+            assertThat(result.getContent()).isEmpty();
+            assertThat(result.isHasNext()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+            verify(customerRepository, never()).findAllCustomers(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should throw ValidationException for a malformed cursor")
+        void shouldThrowExceptionForMalformedCursor() {
+            // When & Then
+            assertThatThrownBy(() -> customerService.getCustomersAfter("not-a-cursor", 10))
+                    .isInstanceOf(ValidationException.class);
+        }
+    }
+
     @Nested
     @DisplayName("Get Customer By ID Tests")
     class GetCustomerByIdTests {
@@ -118,8 +187,8 @@ public class CustomerServiceImplTest {
         @DisplayName("Should return customer when found")
         void shouldReturnCustomerWhenFound() {
             // Given
-            given(customerRepository.findCustomerById(TEST_CUSTOMER_ID))
-                    .willReturn(Optional.of(testCustomer));
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
 
             // When
             CustomerListDTO result = customerService.getCustomerById(TEST_CUSTOMER_ID);
@@ -130,22 +199,92 @@ public class CustomerServiceImplTest {
             assertThat(result.getCustomerName()).isEqualTo("JOHN DOE");
             assertThat(result.getIsSubscribedToNewsletter()).isTrue();
             
-            verify(customerRepository).findCustomerById(TEST_CUSTOMER_ID);
+            verify(customerRepository).findCustomersByIdIn(List.of(TEST_CUSTOMER_ID));
+        }
+
+        @Test
+        @DisplayName("Should serve repeated lookups from the customer cache")
+        void shouldServeRepeatedLookupsFromCache() {
+            // Given
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+
+            // When
+            customerService.getCustomerById(TEST_CUSTOMER_ID);
+            CustomerListDTO result = customerService.getCustomerById(TEST_CUSTOMER_ID);
+
+            // Then
+            assertThat(result).isEqualTo(testCustomerDTO);
+            verify(customerRepository, times(1)).findCustomersByIdIn(anyCollection());
+            assertThat(customerCache.getStats().getHitCount()).isEqualTo(1L);
+            assertThat(customerCache.getStats().getMissCount()).isEqualTo(1L);
         }
 
         @Test
         @DisplayName("Should throw ResourceNotFoundException when customer not found")
         void shouldThrowExceptionWhenCustomerNotFound() {
             // Given
-            given(customerRepository.findCustomerById(TEST_CUSTOMER_ID))
-                    .willReturn(Optional.empty());
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of());
 
             // When & Then
             assertThatThrownBy(() -> customerService.getCustomerById(TEST_CUSTOMER_ID))
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessage("Customer not found with ID: " + TEST_CUSTOMER_ID);
             
-            verify(customerRepository).findCustomerById(TEST_CUSTOMER_ID);
+            verify(customerRepository).findCustomersByIdIn(List.of(TEST_CUSTOMER_ID));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rental Summary Tests")
+    class RentalSummaryTests {
+
+        @Test
+        @DisplayName("Should return the stored summary of a customer")
+        void shouldReturnRentalSummary() {
+            // Given
+            CustomerRentalSummaryDTO summary = new CustomerRentalSummaryDTO(
+                    TEST_CUSTOMER_ID, "JOHN DOE", 3L, 2L, LocalDate.now(), TEST_MODIFIED_DATE);
+            given(customerRentalSummaryRepository.findSummaryById(TEST_CUSTOMER_ID))
+                    .willReturn(Optional.of(summary));
+
+            // When
+            CustomerRentalSummaryDTO result = customerService.getRentalSummary(TEST_CUSTOMER_ID);
+
+            // Then
+            assertThat(result.getTotalRentals()).isEqualTo(3L);
+            assertThat(result.getOutstandingTitles()).isEqualTo(2L);
+            verifyNoInteractions(customerRepository);
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when the customer has no summary")
+        void shouldThrowExceptionWhenSummaryNotFound() {
+            // Given
+            given(customerRentalSummaryRepository.findSummaryById(TEST_CUSTOMER_ID))
+                    .willReturn(Optional.empty());
+
+            // When & Then
+            assertThatThrownBy(() -> customerService.getRentalSummary(TEST_CUSTOMER_ID))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessage("Customer not found with ID: " + TEST_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("Should page summaries in the requested order")
+        void shouldReturnPagedSummaries() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10, Sort.by("totalRentals").descending());
+            given(customerRentalSummaryRepository.findAllSummaries(pageable))
+                    .willReturn(Page.empty(pageable));
+
+            // When
+            Page<CustomerRentalSummaryDTO> result = customerService.getRentalSummaries(pageable);
+
+            // Then
+            assertThat(result).isEmpty();
+            verify(customerRentalSummaryRepository).findAllSummaries(pageable);
         }
     }
 
@@ -184,6 +323,14 @@ public class CustomerServiceImplTest {
             assertThat(result.getIsSubscribedToNewsletter()).isFalse();
             
             verify(customerRepository).save(newCustomer);
+            verify(customerRentalSummaryRepository).save(argThat(summary ->
+                    summary.getCustomerId().equals(2L)
+                            && summary.getCustomerName().equals("JANE SMITH")
+                            && summary.getTotalRentals() == 0L
+                            && summary.getLastRentalDate() == null));
+            //written through, the next lookup does not hit the database
+            assertThat(customerService.getCustomerById(2L)).isEqualTo(result);
+            verify(customerRepository, never()).findCustomersByIdIn(anyCollection());
         }
 
         @Test
@@ -245,7 +392,7 @@ public class CustomerServiceImplTest {
             
             given(customerRepository.findById(TEST_CUSTOMER_ID))
                     .willReturn(Optional.of(testCustomer));
-            given(customerRepository.save(any(Customer.class)))
+            given(customerRepository.saveAndFlush(any(Customer.class)))
                     .willReturn(updatedCustomer);
 
             // When
@@ -257,7 +404,13 @@ public class CustomerServiceImplTest {
             assertThat(result.getIsSubscribedToNewsletter()).isTrue(); // unchanged
             
             verify(customerRepository).findById(TEST_CUSTOMER_ID);
-            verify(customerRepository).save(any(Customer.class));
+            verify(customerRepository).saveAndFlush(any(Customer.class));
+            verify(customerRentalSummaryRepository).rename(TEST_CUSTOMER_ID, "JOHN SMITH UPDATED");
+            verify(rentalReadCache).evictAll();
+            //written through, the next lookup sees the new name without a query
+            assertThat(customerService.getCustomerById(TEST_CUSTOMER_ID).getCustomerName())
+                    .isEqualTo("JOHN SMITH UPDATED");
+            verify(customerRepository, never()).findCustomersByIdIn(anyCollection());
         }
 
         @Test
@@ -278,7 +431,7 @@ public class CustomerServiceImplTest {
             
             given(customerRepository.findById(TEST_CUSTOMER_ID))
                     .willReturn(Optional.of(testCustomer));
-            given(customerRepository.save(any(Customer.class)))
+            given(customerRepository.saveAndFlush(any(Customer.class)))
                     .willReturn(updatedCustomer);
 
             // When
@@ -290,7 +443,8 @@ public class CustomerServiceImplTest {
             assertThat(result.getCustomerName()).isEqualTo("JOHN DOE"); // unchanged
             
             verify(customerRepository).findById(TEST_CUSTOMER_ID);
-            verify(customerRepository).save(any(Customer.class));
+            verify(customerRepository).saveAndFlush(any(Customer.class));
+            verify(rentalReadCache, never()).evictAll();
         }
 
         @Test
@@ -312,7 +466,7 @@ public class CustomerServiceImplTest {
             
             given(customerRepository.findById(TEST_CUSTOMER_ID))
                     .willReturn(Optional.of(testCustomer));
-            given(customerRepository.save(any(Customer.class)))
+            given(customerRepository.saveAndFlush(any(Customer.class)))
                     .willReturn(updatedCustomer);
 
             // When
@@ -323,7 +477,7 @@ public class CustomerServiceImplTest {
             assertThat(result.getBirthdate()).isEqualTo(newBirthdate);
             
             verify(customerRepository).findById(TEST_CUSTOMER_ID);
-            verify(customerRepository).save(any(Customer.class));
+            verify(customerRepository).saveAndFlush(any(Customer.class));
         }
 
         @Test
@@ -342,7 +496,7 @@ public class CustomerServiceImplTest {
                     .hasMessage("Customer must be at least 13 years old");
             
             verify(customerRepository).findById(TEST_CUSTOMER_ID);
-            verify(customerRepository, never()).save(any(Customer.class));
+            verify(customerRepository, never()).saveAndFlush(any(Customer.class));
         }
 
         @Test
@@ -357,7 +511,7 @@ public class CustomerServiceImplTest {
                     .hasMessage("No fields provided for update");
             
             verify(customerRepository, never()).findById(anyLong());
-            verify(customerRepository, never()).save(any(Customer.class));
+            verify(customerRepository, never()).saveAndFlush(any(Customer.class));
         }
 
         @Test
@@ -376,7 +530,7 @@ public class CustomerServiceImplTest {
                     .hasMessage("Customer not found with ID: " + TEST_CUSTOMER_ID);
             
             verify(customerRepository).findById(TEST_CUSTOMER_ID);
-            verify(customerRepository, never()).save(any(Customer.class));
+            verify(customerRepository, never()).saveAndFlush(any(Customer.class));
         }
 
         @Test
@@ -397,7 +551,7 @@ public class CustomerServiceImplTest {
             assertThat(result.getCustomerName()).isEqualTo("JOHN DOE");
             
             verify(customerRepository).findById(TEST_CUSTOMER_ID);
-            verify(customerRepository, never()).save(any(Customer.class));
+            verify(customerRepository, never()).saveAndFlush(any(Customer.class));
         }
 
         @Test
@@ -418,7 +572,7 @@ public class CustomerServiceImplTest {
             assertThat(result.getCustomerName()).isEqualTo("JOHN DOE"); // unchanged
             
             verify(customerRepository).findById(TEST_CUSTOMER_ID);
-            verify(customerRepository, never()).save(any(Customer.class));
+            verify(customerRepository, never()).saveAndFlush(any(Customer.class));
         }
     }
 
@@ -0,0 +1,397 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.cache.MoviesChangedEvent;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.repository.MovieRepository;
+import com.example.demo.repository.MovieRepository.MovieStockRow;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerInventoryServiceImplTest {
+
+    private static final Long MOVIE_ID = 1L;
+    private static final int STOCK = 5;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private LedgerInventoryServiceImpl ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerInventoryServiceImpl(movieRepository, jdbcTemplate,
+                new TransactionTemplate(transactionManager), eventPublisher,
+                dataSource, Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild availability from outstanding copies and flush the correction")
+    void shouldReconcileFromOutstandingCopies() throws Exception {
+        // Given - 2 copies out, but the table says 1 available
+        claimed();
+        given(movieRepository.findStockRows()).willReturn(List.of(stockRow(MOVIE_ID, STOCK, 1, 2)));
+
+        // When
+        ledger.reconcile();
+
+        // Then
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK - 2);
+        verify(jdbcTemplate).batchUpdate(eq(LedgerInventoryServiceImpl.FLUSH_DELTA),
+                argThat((List<Object[]> batch) -> batch.size() == 1
+                        && batch.get(0)[0].equals(2) && batch.get(0)[3].equals(MOVIE_ID)));
+        verify(eventPublisher).publishEvent(MoviesChangedEvent.availability(List.of(MOVIE_ID)));
+    }
+
+    @Test
+    @DisplayName("Should hold reserved copies and write them once the rental commits")
+    void shouldFlushCommittedReservations() throws Exception {
+        // Given
+        reconciled(STOCK);
+
+        // When
+        boolean reserved = inTransaction(true, () -> ledger.reserve(MOVIE_ID, 2) && ledger.reserve(MOVIE_ID, 1));
+        boolean overbooked = inTransaction(true, () -> ledger.reserve(MOVIE_ID, 3));
+        int flushed = ledger.flush();
+
+        // Then
+        assertThat(reserved).isTrue();
+        assertThat(overbooked).isFalse();
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK - 3);
+        assertThat(flushed).isEqualTo(1);
+        verify(jdbcTemplate).batchUpdate(eq(LedgerInventoryServiceImpl.FLUSH_DELTA),
+                argThat((List<Object[]> batch) -> batch.size() == 1 && batch.get(0)[0].equals(-3)));
+        assertThat(ledger.flush()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give reserved copies back when the rental rolls back")
+    void shouldReleaseOnRollback() throws Exception {
+        // Given
+        reconciled(STOCK);
+
+        // When
+        inTransaction(false, () -> ledger.reserve(MOVIE_ID, 4));
+
+        // Then
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK);
+        assertThat(ledger.flush()).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should make returned copies available only after commit and never above the stock")
+    void shouldReleaseReturnedCopiesAfterCommit() throws Exception {
+        // Given
+        reconciled(STOCK - 2);
+
+        // When
+        boolean released = inTransaction(true, () -> {
+            boolean result = ledger.release(MOVIE_ID, 1);
+            assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK - 2);
+            return result;
+        });
+        boolean overflow = inTransaction(true, () -> ledger.release(MOVIE_ID, 2));
+        boolean returned = inTransaction(true, () -> ledger.releaseReturned(List.of(10L), Map.of(MOVIE_ID, 1)));
+        boolean returnedAgain = inTransaction(true, () -> ledger.releaseReturned(List.of(10L), Map.of(MOVIE_ID, 1)));
+
+        // Then
+        assertThat(released).isTrue();
+        assertThat(overflow).isFalse();
+        assertThat(returned).isTrue();
+        assertThat(returnedAgain).isFalse();
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK);
+    }
+
+    @Test
+    @DisplayName("Should keep the deltas when the flush fails")
+    void shouldKeepDeltasWhenFlushFails() throws Exception {
+        // Given
+        reconciled(STOCK);
+        inTransaction(true, () -> ledger.reserve(MOVIE_ID, 1));
+        given(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .willThrow(new QueryTimeoutException("timeout"))
+                .willReturn(new int[] {1});
+
+        // When
+        int failed = ledger.flush();
+        int retried = ledger.flush();
+
+        // Then
+        assertThat(failed).isZero();
+        assertThat(retried).isEqualTo(1);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(LedgerInventoryServiceImpl.FLUSH_DELTA),
+                argThat((List<Object[]> batch) -> batch.get(0)[0].equals(-1)));
+    }
+
+    @Test
+    @DisplayName("Should load a title on first use and refuse unknown titles")
+    void shouldLoadTitlesOnDemand() throws Exception {
+        // Given
+        claimed();
+        given(movieRepository.findStockRow(MOVIE_ID)).willReturn(Optional.of(stockRow(MOVIE_ID, STOCK, STOCK, 0)));
+        given(movieRepository.findStockRow(99L)).willReturn(Optional.empty());
+
+        // When
+        boolean reserved = inTransaction(true, () -> ledger.reserve(MOVIE_ID, 1));
+        boolean unknown = inTransaction(true, () -> ledger.reserve(99L, 1));
+
+        // Then
+        assertThat(reserved).isTrue();
+        assertThat(unknown).isFalse();
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK - 1);
+    }
+
+    //the stored availability already matches, so reconciliation leaves nothing to flush
+    @Test
+    @DisplayName("Should hold the ledger lock until shutdown")
+    void shouldHoldOwnershipUntilStop() throws Exception {
+        // Given
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(LedgerInventoryServiceImpl.CLAIM_OWNERSHIP)).willReturn(statement);
+        given(statement.executeUpdate()).willReturn(1);
+        given(connection.isValid(5)).willReturn(true);
+
+        // When
+        ledger.claimOwnership();
+
+        // Then
+        verify(statement).setQueryTimeout(5);
+        verify(statement).setString(1, LedgerInventoryServiceImpl.JOB_NAME);
+        verify(connection, never()).rollback();
+
+        // When
+        ledger.stop();
+
+        // Then
+        InOrder released = inOrder(connection);
+        released.verify(connection).setAutoCommit(false);
+        released.verify(connection).rollback();
+        released.verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("Should create the lock row when the schema was not migrated")
+    void shouldCreateOwnerRowWhenMissing() throws Exception {
+        // Given
+        PreparedStatement insert = mock(PreparedStatement.class);
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(LedgerInventoryServiceImpl.CLAIM_OWNERSHIP)).willReturn(statement);
+        given(connection.prepareStatement(LedgerInventoryServiceImpl.CREATE_OWNER_ROW)).willReturn(insert);
+        given(statement.executeUpdate()).willReturn(0);
+        given(insert.executeUpdate()).willReturn(1);
+
+        // When
+        ledger.claimOwnership();
+
+        // Then
+        verify(insert).setString(1, LedgerInventoryServiceImpl.JOB_NAME);
+        verify(connection, never()).close();
+    }
+
+    @Test
+    @DisplayName("Should fail startup when another instance owns the ledger")
+    void shouldFailWhenLedgerIsOwnedElsewhere() throws Exception {
+        // Given
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(LedgerInventoryServiceImpl.CLAIM_OWNERSHIP)).willReturn(statement);
+        given(statement.executeUpdate()).willThrow(new SQLTimeoutException("lock request time out period exceeded"));
+
+        // When & Then
+        assertThatThrownBy(() -> ledger.claimOwnership())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(LedgerInventoryServiceImpl.JOB_NAME);
+        verify(connection).rollback();
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("Should stop flushing and refuse stock changes once the ledger lock is lost")
+    void shouldFailClosedWhenLockIsLost() throws Exception {
+        // Given - the database dropped the lock connection after a checkout committed
+        reconciled(STOCK);
+        inTransaction(true, () -> ledger.reserve(MOVIE_ID, 1));
+        given(connection.isValid(5)).willReturn(false);
+
+        // When
+        int flushed = ledger.flush();
+
+        // Then
+        assertThat(flushed).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(connection).close();
+        assertThatThrownBy(() -> inTransaction(true, () -> ledger.reserve(MOVIE_ID, 1)))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> inTransaction(true, () -> ledger.release(MOVIE_ID, 1)))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK - 1);
+    }
+
+    @Test
+    @DisplayName("Should treat a lock row it can no longer update as lost")
+    void shouldFailClosedWhenLockRowIsGone() throws Exception {
+        // Given - the session was killed, the connection still looks open
+        reconciled(STOCK);
+        given(statement.executeUpdate()).willThrow(new SQLException("session killed"));
+
+        // When
+        int flushed = ledger.flush();
+
+        // Then
+        assertThat(flushed).isZero();
+        assertThatThrownBy(() -> inTransaction(true, () -> ledger.reserve(MOVIE_ID, 1)))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Should move availability with an edited stock once the edit commits")
+    void shouldReloadStockOfEditedTitles() throws Exception {
+        // Given - one copy out
+        reconciled(STOCK - 1);
+        given(movieRepository.findStockRow(MOVIE_ID))
+                .willReturn(Optional.of(stockRow(MOVIE_ID, STOCK + 2, STOCK - 1, 1)))
+                .willReturn(Optional.of(stockRow(MOVIE_ID, 1, STOCK + 1, 1)));
+
+        // When - two copies bought
+        ledger.onMoviesChanged(MoviesChangedEvent.of(List.of(MOVIE_ID)));
+
+        // Then
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK + 1);
+        assertThat(ledger.flush()).isEqualTo(1);
+        verify(jdbcTemplate).batchUpdate(eq(LedgerInventoryServiceImpl.FLUSH_DELTA),
+                argThat((List<Object[]> batch) -> batch.get(0)[0].equals(2)));
+
+        // When - cut down to the copy still out
+        ledger.onMoviesChanged(MoviesChangedEvent.of(List.of(MOVIE_ID)));
+
+        // Then - nothing left to rent, the returned copy fits the new stock
+        assertThat(ledger.available(MOVIE_ID)).isZero();
+        assertThat(inTransaction(true, () -> ledger.reserve(MOVIE_ID, 1))).isFalse();
+        assertThat(inTransaction(true, () -> ledger.release(MOVIE_ID, 1))).isTrue();
+        assertThat(inTransaction(true, () -> ledger.release(MOVIE_ID, 1))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not read the stock again for its own availability changes")
+    void shouldIgnoreAvailabilityChanges() throws Exception {
+        // Given
+        reconciled(STOCK);
+
+        // When
+        ledger.onMoviesChanged(MoviesChangedEvent.availability(List.of(MOVIE_ID)));
+
+        // Then
+        verify(movieRepository, never()).findStockRow(anyLong());
+        assertThat(ledger.available(MOVIE_ID)).isEqualTo(STOCK);
+    }
+
+    //holds the lock the way startup does, checked again before every flush
+    private void claimed() throws Exception {
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(LedgerInventoryServiceImpl.CLAIM_OWNERSHIP)).willReturn(statement);
+        given(statement.executeUpdate()).willReturn(1);
+        lenient().when(connection.isValid(5)).thenReturn(true);
+        ledger.claimOwnership();
+    }
+
+    private void reconciled(int available) throws Exception {
+        claimed();
+        given(movieRepository.findStockRows()).willReturn(List.of(stockRow(MOVIE_ID, STOCK, available, STOCK - available)));
+        ledger.reconcile();
+    }
+
+    private boolean inTransaction(boolean commit, BooleanSupplier work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return work.getAsBoolean();
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, commit
+                    ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+
+    private MovieStockRow stockRow(Long movieId, int inStock, int available, long outstanding) {
+        return new MovieStockRow() {
+            @Override
+            public Long getMovieId() {
+                return movieId;
+            }
+
+            @Override
+            public Integer getNumberInStock() {
+                return inStock;
+            }
+
+            @Override
+            public Integer getNumberAvailable() {
+                return available;
+            }
+
+            @Override
+            public Long getOutstanding() {
+                return outstanding;
+            }
+        };
+    }
+}
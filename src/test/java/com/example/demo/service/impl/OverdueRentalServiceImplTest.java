@@ -0,0 +1,98 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.cache.MovieCatalogueCache;
+import com.example.demo.entity.JobWatermark;
+import com.example.demo.repository.JobWatermarkRepository;
+import com.example.demo.repository.MovieRepository;
+import com.example.demo.repository.OverdueRentalRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OverdueRentalServiceImplTest {
+
+    private static final int RENTAL_DAYS = 7;
+
+    @Mock
+    private OverdueRentalRepository overdueRentalRepository;
+
+    @Mock
+    private JobWatermarkRepository jobWatermarkRepository;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    private OverdueRentalServiceImpl overdueRentalService;
+
+    private final LocalDate cutoff = LocalDate.now().minusDays(RENTAL_DAYS + 1);
+
+    @BeforeEach
+    void setUp() {
+        overdueRentalService = new OverdueRentalServiceImpl(
+                overdueRentalRepository,
+                jobWatermarkRepository,
+                new MovieCatalogueCache(movieRepository, 100, Duration.ofMinutes(10)));
+        ReflectionTestUtils.setField(overdueRentalService, "rentalDays", RENTAL_DAYS);
+    }
+
+    @Test
+    @DisplayName("Should create the lock row when the schema was not migrated")
+    void shouldCreateLockRowWhenMissing() {
+        // Given
+        given(jobWatermarkRepository.findForUpdate(OverdueRentalServiceImpl.JOB_NAME))
+                .willReturn(Optional.empty());
+        given(jobWatermarkRepository.saveAndFlush(any(JobWatermark.class)))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(overdueRentalRepository.insertOverdue(cutoff)).willReturn(3);
+
+        // When
+        int detected = overdueRentalService.scanOverdueRentals();
+
+        // Then
+        assertThat(detected).isEqualTo(3);
+        verify(overdueRentalRepository).deleteReturned();
+
+        ArgumentCaptor<JobWatermark> saved = ArgumentCaptor.forClass(JobWatermark.class);
+        verify(jobWatermarkRepository).save(saved.capture());
+        assertThat(saved.getValue().getJobName()).isEqualTo(OverdueRentalServiceImpl.JOB_NAME);
+        assertThat(saved.getValue().getWatermark()).isEqualTo(cutoff);
+    }
+
+    @Test
+    @DisplayName("Should scan every open copy past the cutoff under the seeded lock row")
+    void shouldScanOpenCopiesUnderLock() {
+        // Given
+        JobWatermark watermark = JobWatermark.builder()
+                .jobName(OverdueRentalServiceImpl.JOB_NAME)
+                .watermark(cutoff)
+                .build();
+        given(jobWatermarkRepository.findForUpdate(OverdueRentalServiceImpl.JOB_NAME))
+                .willReturn(Optional.of(watermark));
+        given(overdueRentalRepository.insertOverdue(cutoff)).willReturn(1);
+
+        // When
+        int detected = overdueRentalService.scanOverdueRentals();
+
+        // Then
+        assertThat(detected).isEqualTo(1);
+        verify(jobWatermarkRepository, never()).saveAndFlush(any(JobWatermark.class));
+        verify(overdueRentalRepository).deleteReturned();
+        assertThat(watermark.getWatermark()).isEqualTo(cutoff);
+        verify(jobWatermarkRepository).save(watermark);
+    }
+}
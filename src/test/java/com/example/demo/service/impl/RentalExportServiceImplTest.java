@@ -0,0 +1,115 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.cache.MovieCatalogueCache;
+import com.example.demo.dto.request.RentalExportFormat;
+import com.example.demo.entity.Genre;
+import com.example.demo.entity.Movie;
+import com.example.demo.exception.ValidationException;
+import com.example.demo.repository.MovieRepository;
+import com.example.demo.repository.RentalHeaderRepository;
+import com.example.demo.repository.RentalHeaderRepository.RentalRow;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RentalExportServiceImplTest {
+
+    private final LocalDate TEST_DATE_RENTED = LocalDate.of(2024, 1, 15);
+
+    @Mock
+    private RentalHeaderRepository rentalHeaderRepository;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    private RentalExportServiceImpl rentalExportService;
+
+    @BeforeEach
+    void setUp() {
+        rentalExportService = new RentalExportServiceImpl(rentalHeaderRepository,
+                new MovieCatalogueCache(movieRepository, 100, Duration.ofMinutes(10)), JsonMapper.builder().build());
+
+        Genre genre = Genre.builder().genreId(1L).genreName("ACTION").build();
+        lenient().when(movieRepository.findAllByIdWithGenre(anyCollection()))
+                .thenReturn(List.of(Movie.builder().movieId(1L).movieName("THE MATRIX").genre(genre).build()));
+
+        // two details of rental 1, then rental 2 without details
+        lenient().when(rentalHeaderRepository.streamRentalExportRows()).thenReturn(Stream.of(
+                row(1L, "DOE, JOHN", 10L, 1L, null),
+                row(1L, "DOE, JOHN", 11L, 1L, TEST_DATE_RENTED.plusDays(3)),
+                row(2L, "JANE \"JJ\" ROE", null, null, null)));
+    }
+
+    private RentalRow row(Long rentalId, String customerName, Long rentalDetailId, Long movieId,
+                          LocalDate dateReturned) {
+        RentalRow row = mock(RentalRow.class);
+        lenient().when(row.getRentalId()).thenReturn(rentalId);
+        lenient().when(row.getCustomerName()).thenReturn(customerName);
+        lenient().when(row.getDateRented()).thenReturn(TEST_DATE_RENTED);
+        lenient().when(row.getRentalDetailId()).thenReturn(rentalDetailId);
+        lenient().when(row.getMovieId()).thenReturn(movieId);
+        lenient().when(row.getDateReturned()).thenReturn(dateReturned);
+        lenient().when(row.getLastModified()).thenReturn(LocalDateTime.now());
+        return row;
+    }
+
+    @Test
+    @DisplayName("Should write one JSON rental per line, grouping its details")
+    void shouldExportNdjson() throws Exception {
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        rentalExportService.exportRentals(RentalExportFormat.NDJSON, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0])
+                .contains("\"rentalId\":1")
+                .contains("\"movieName\":\"THE MATRIX\"")
+                .contains("\"rentalDetailId\":11");
+        assertThat(lines[1])
+                .contains("\"rentalId\":2")
+                .contains("\"rentDetails\":[]");
+    }
+
+    @Test
+    @DisplayName("Should write one quoted CSV line per rental detail")
+    void shouldExportCsv() throws Exception {
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        rentalExportService.exportRentals(RentalExportFormat.CSV, output);
+
+        // Then
+        assertThat(output.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "rentalId,customerName,dateRented,rentalDetailId,movieName,genre,dateReturned",
+                "1,\"DOE, JOHN\",2024-01-15,10,THE MATRIX,ACTION,",
+                "1,\"DOE, JOHN\",2024-01-15,11,THE MATRIX,ACTION,2024-01-18",
+                "2,\"JANE \"\"JJ\"\" ROE\",2024-01-15,,,,");
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown export format")
+    void shouldRejectUnknownFormat() {
+        assertThatThrownBy(() -> RentalExportFormat.from("xml"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Unsupported export format: xml, expected one of: ndjson, csv");
+    }
+}
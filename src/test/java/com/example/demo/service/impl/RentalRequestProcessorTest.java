@@ -0,0 +1,180 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.entity.RentalRequest;
+import com.example.demo.entity.RentalRequestStatus;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repository.RentalRequestRepository;
+import com.example.demo.service.RentalService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+public class RentalRequestProcessorTest {
+
+    private final Long TEST_REQUEST_ID = 7L;
+    private final String TEST_NODE_ID = "node-a";
+    private final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+
+    @Mock
+    private RentalRequestRepository rentalRequestRepository;
+
+    @Mock
+    private RentalService rentalService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RentalRequestProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new RentalRequestProcessor(rentalRequestRepository, rentalService,
+                new TransactionTemplate(transactionManager), 2, 1, TEST_NODE_ID, CLAIM_TIMEOUT, new SimpleMeterRegistry());
+    }
+
+    private void givenClaimedRequest() {
+        given(rentalRequestRepository.claim(eq(TEST_REQUEST_ID), eq(TEST_NODE_ID), any(LocalDateTime.class)))
+                .willReturn(1);
+        given(rentalRequestRepository.findById(TEST_REQUEST_ID)).willReturn(Optional.of(RentalRequest.builder()
+                .rentalRequestId(TEST_REQUEST_ID)
+                .customerId(1L)
+                .movieIds(List.of(1L, 1L))
+                .dateRented(LocalDate.now())
+                .status(RentalRequestStatus.PROCESSING)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("Should apply backpressure once the queue is full")
+    void shouldRejectWhenQueueFull() {
+        assertThat(processor.enqueue(1L)).isTrue();
+        assertThat(processor.enqueue(2L)).isTrue();
+        assertThat(processor.enqueue(3L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should create the rental and mark the request COMPLETED")
+    void shouldCompleteRequest() {
+        // Given
+        givenClaimedRequest();
+        given(rentalService.createRental(any(RentalRequestDTO.class)))
+                .willReturn(new RentalListDTO(42L, "JOHN DOE", LocalDate.now(), List.of()));
+        given(rentalRequestRepository.complete(eq(TEST_REQUEST_ID), eq(42L), eq(TEST_NODE_ID), any(LocalDateTime.class)))
+                .willReturn(1);
+
+        // When
+        processor.process(TEST_REQUEST_ID);
+
+        // Then
+        verify(rentalService).createRental(argThat(request ->
+                request.getCustomerId().equals(1L) && request.getMovieIds().equals(List.of(1L, 1L))));
+        verify(transactionManager).commit(any());
+        verify(rentalRequestRepository, never()).fail(anyLong(), anyString(), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should roll the rental back when another node took the claim over")
+    void shouldRollBackWhenClaimLost() {
+        // Given - the claim went stale and another node re-queued the request
+        givenClaimedRequest();
+        given(rentalService.createRental(any(RentalRequestDTO.class)))
+                .willReturn(new RentalListDTO(42L, "JOHN DOE", LocalDate.now(), List.of()));
+        given(rentalRequestRepository.complete(eq(TEST_REQUEST_ID), eq(42L), eq(TEST_NODE_ID), any(LocalDateTime.class)))
+                .willReturn(0);
+
+        // When
+        processor.process(TEST_REQUEST_ID);
+
+        // Then
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(rentalRequestRepository, never()).fail(anyLong(), anyString(), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should mark the request FAILED with the business error")
+    void shouldFailRequestOnBusinessError() {
+        // Given
+        givenClaimedRequest();
+        given(rentalService.createRental(any(RentalRequestDTO.class)))
+                .willThrow(new BusinessException("Movie 'THE MATRIX' is out of stock"));
+
+        // When
+        processor.process(TEST_REQUEST_ID);
+
+        // Then
+        verify(rentalRequestRepository).fail(eq(TEST_REQUEST_ID), eq("Movie 'THE MATRIX' is out of stock"),
+                eq(TEST_NODE_ID), any(LocalDateTime.class));
+        verify(rentalRequestRepository, never()).complete(anyLong(), anyLong(), anyString(), any(LocalDateTime.class));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should skip a request another worker already claimed")
+    void shouldSkipClaimedRequest() {
+        // Given
+        given(rentalRequestRepository.claim(eq(TEST_REQUEST_ID), eq(TEST_NODE_ID), any(LocalDateTime.class)))
+                .willReturn(0);
+
+        // When
+        processor.process(TEST_REQUEST_ID);
+
+        // Then
+        verify(rentalService, never()).createRental(any(RentalRequestDTO.class));
+    }
+
+    @Test
+    @DisplayName("Should only release this node's earlier claims and claims older than the timeout")
+    void shouldRecoverOwnAndStaleClaims() {
+        // Given
+        LocalDateTime before = LocalDateTime.now();
+        given(rentalRequestRepository.findIdsByStatusIn(List.of(RentalRequestStatus.CREATED)))
+                .willReturn(List.of(TEST_REQUEST_ID));
+
+        // When
+        processor.recover();
+
+        // Then
+        verify(rentalRequestRepository).releaseAbandoned(eq(TEST_NODE_ID),
+                argThat(startedAt -> !startedAt.isAfter(before)),
+                argThat(staleBefore -> !staleBefore.isAfter(LocalDateTime.now().minus(CLAIM_TIMEOUT))
+                        && staleBefore.isAfter(before.minus(CLAIM_TIMEOUT).minusSeconds(1))));
+        assertThat(processor.enqueue(8L)).isTrue();
+        assertThat(processor.enqueue(9L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not re-queue anything when no claim went stale")
+    void shouldSkipStaleSweepWithoutStaleClaims() {
+        // Given
+        given(rentalRequestRepository.releaseAbandoned(eq(TEST_NODE_ID), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .willReturn(0);
+
+        // When
+        processor.recoverStale();
+
+        // Then
+        verify(rentalRequestRepository, never()).findIdsByStatusIn(anyCollection());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.response.RentalRequestStatusDTO;
+import com.example.demo.entity.RentalRequest;
+import com.example.demo.entity.RentalRequestStatus;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.repository.RentalRequestRepository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RentalRequestServiceImplTest {
+
+    private final Long TEST_REQUEST_ID = 7L;
+    private final Long TEST_CUSTOMER_ID = 1L;
+
+    @Mock
+    private RentalRequestRepository rentalRequestRepository;
+
+    @Mock
+    private RentalRequestProcessor rentalRequestProcessor;
+
+    @InjectMocks
+    private RentalRequestServiceImpl rentalRequestService;
+
+    private void givenSavedRequest() {
+        given(rentalRequestRepository.save(any(RentalRequest.class)))
+                .willAnswer(invocation -> {
+                    RentalRequest rentalRequest = invocation.getArgument(0);
+                    rentalRequest.setRentalRequestId(TEST_REQUEST_ID);
+                    return rentalRequest;
+                });
+    }
+
+    @Test
+    @DisplayName("Should store and queue the request, answering CREATED")
+    void shouldAcceptRequest() {
+        // Given
+        givenSavedRequest();
+        given(rentalRequestProcessor.enqueue(TEST_REQUEST_ID)).willReturn(true);
+
+        // When
+        RentalRequestStatusDTO result = rentalRequestService.submitRental(
+                new RentalRequestDTO(TEST_CUSTOMER_ID, List.of(1L, 2L)));
+
+        // Then
+        assertThat(result.getRentalRequestId()).isEqualTo(TEST_REQUEST_ID);
+        assertThat(result.getStatus()).isEqualTo("CREATED");
+        verify(rentalRequestRepository).save(argThat(rentalRequest ->
+                rentalRequest.getMovieIds().equals(List.of(1L, 2L))
+                        && rentalRequest.getStatus() == RentalRequestStatus.CREATED));
+        verify(rentalRequestRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should reject with ServiceUnavailableException and drop the row when the queue is full")
+    void shouldRejectWhenQueueFull() {
+        // Given
+        givenSavedRequest();
+        given(rentalRequestProcessor.enqueue(TEST_REQUEST_ID)).willReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> rentalRequestService.submitRental(
+                new RentalRequestDTO(TEST_CUSTOMER_ID, List.of(1L))))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessage("Rental queue is full, please retry later");
+
+        verify(rentalRequestRepository).deleteById(TEST_REQUEST_ID);
+    }
+
+    @Test
+    @DisplayName("Should report the outcome of a completed request")
+    void shouldReturnCompletedStatus() {
+        // Given
+        RentalRequest completed = RentalRequest.builder()
+                .rentalRequestId(TEST_REQUEST_ID)
+                .customerId(TEST_CUSTOMER_ID)
+                .movieIds(List.of(1L))
+                .status(RentalRequestStatus.COMPLETED)
+                .rentalId(42L)
+                .build();
+        given(rentalRequestRepository.findById(TEST_REQUEST_ID)).willReturn(Optional.of(completed));
+
+        // When
+        RentalRequestStatusDTO result = rentalRequestService.getRentalRequest(TEST_REQUEST_ID);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getRentalId()).isEqualTo(42L);
+    }
+
+    @Test
+    @DisplayName("Should throw ResourceNotFoundException for an unknown request")
+    void shouldThrowExceptionWhenRequestNotFound() {
+        // Given
+        given(rentalRequestRepository.findById(999L)).willReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> rentalRequestService.getRentalRequest(999L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("RentalRequest not found with id: '999'");
+    }
+}
@@ -0,0 +1,1149 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.cache.CustomerCache;
+import com.example.demo.cache.MovieCatalogueCache;
+import com.example.demo.cache.MovieCatalogueEntry;
+import com.example.demo.cache.MoviesChangedEvent;
+import com.example.demo.cache.OffHeapRentalStore;
+import com.example.demo.cache.RentalReadCache;
+import com.example.demo.dto.request.KeysetCursor;
+import com.example.demo.dto.request.RentalRequestDTO;
+import com.example.demo.dto.request.RentalReturnDTO;
+import com.example.demo.dto.response.CursorPageResponse;
+import com.example.demo.dto.response.CustomerListDTO;
+import com.example.demo.dto.response.RentalBatchResponseDTO;
+import com.example.demo.dto.response.RentalReturnResultDTO;
+import com.example.demo.dto.response.RentalItemDTO;
+import com.example.demo.dto.response.RentalListDTO;
+import com.example.demo.entity.*;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.ValidationException;
+import com.example.demo.metrics.RentalMetrics;
+import com.example.demo.outbox.OutboxWriter;
+import com.example.demo.outbox.RentalEvent;
+import com.example.demo.repository.CustomerRentalSummaryRepository;
+import com.example.demo.repository.CustomerRepository;
+import com.example.demo.repository.MovieRepository;
+import com.example.demo.repository.RentalDetailRepository;
+import com.example.demo.repository.RentalDetailRepository.OutstandingRentalDetail;
+import com.example.demo.repository.RentalHeaderRepository;
+import com.example.demo.repository.RentalHeaderRepository.RentalRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+public class RentalServiceImplTest {
+
+    @Mock
+    private RentalHeaderRepository rentalHeaderRepository;
+
+    @Mock
+    private RentalDetailRepository rentalDetailRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private CustomerRentalSummaryRepository customerRentalSummaryRepository;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<OffHeapRentalStore> offHeapStoreProvider;
+
+    private RentalServiceImpl rentalService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private Customer testCustomer;
+    private CustomerListDTO testCustomerDTO;
+    private Movie testMovie1;
+    private Movie testMovie2;
+    private Genre testGenre;
+    private RentalHeader testRentalHeader;
+    private RentalDetail testRentalDetail1;
+    private RentalDetail testRentalDetail2;
+    private final Long TEST_CUSTOMER_ID = 1L;
+    private final Long TEST_MOVIE_ID_1 = 1L;
+    private final Long TEST_MOVIE_ID_2 = 2L;
+    private final Long TEST_RENTAL_ID = 1L;
+    private final Long TEST_RENTAL_DETAIL_ID_1 = 1L;
+    private final Long TEST_RENTAL_DETAIL_ID_2 = 2L;
+    private final LocalDate TEST_DATE_RENTED = LocalDate.now().minusDays(2);
+    private final LocalDateTime TEST_CREATED_DATE = LocalDateTime.now().minusDays(2);
+    private final LocalDateTime TEST_MODIFIED_DATE = LocalDateTime.now().minusHours(1);
+
+    @BeforeEach
+    void setUp() {
+        // Real catalogue cache in front of the mocked repository
+        meterRegistry = new SimpleMeterRegistry();
+        rentalService = new RentalServiceImpl(
+                rentalHeaderRepository,
+                rentalDetailRepository,
+                customerRepository,
+                customerRentalSummaryRepository,
+                movieRepository,
+                new MovieCatalogueCache(movieRepository, 100, Duration.ofMinutes(10)),
+                new CustomerCache(customerRepository, 100, Duration.ofMinutes(30)),
+                new RentalReadCache(transactionManager, offHeapStoreProvider, 100, Duration.ofSeconds(30), Duration.ofMinutes(10)),
+                new TransactionTemplate(transactionManager),
+                new RentalMetrics(meterRegistry),
+                outboxWriter,
+                new DatabaseInventoryServiceImpl(movieRepository, eventPublisher));
+        ReflectionTestUtils.setField(rentalService, "batchChunkSize", 2);
+
+        // Setup test genre
+        testGenre = Genre.builder()
+                .genreId(1L)
+                .genreName("ACTION")
+                .build();
+
+        // Setup test movies
+        testMovie1 = Movie.builder()
+                .movieId(TEST_MOVIE_ID_1)
+                .movieName("THE MATRIX")
+                .genre(testGenre)
+                .numberInStock(10)
+                .numberAvailable(5)
+                .build();
+
+        testMovie2 = Movie.builder()
+                .movieId(TEST_MOVIE_ID_2)
+                .movieName("INCEPTION")
+                .genre(testGenre)
+                .numberInStock(8)
+                .numberAvailable(3)
+                .build();
+
+        // Setup test customer
+        testCustomer = Customer.builder()
+                .customerId(TEST_CUSTOMER_ID)
+                .customerName("JOHN DOE")
+                .build();
+        testCustomerDTO = new CustomerListDTO(TEST_CUSTOMER_ID, "JOHN DOE", false, null, null, null);
+        lenient().when(customerRepository.getReferenceById(TEST_CUSTOMER_ID))
+                .thenReturn(testCustomer);
+
+        // Setup test rental details
+        testRentalDetail1 = RentalDetail.builder()
+                .rentalDetailId(TEST_RENTAL_DETAIL_ID_1)
+                .movie(testMovie1)
+                .dateReturned(null)
+                .createdDate(TEST_CREATED_DATE)
+                .modifiedDate(TEST_MODIFIED_DATE)
+                .build();
+
+        testRentalDetail2 = RentalDetail.builder()
+                .rentalDetailId(TEST_RENTAL_DETAIL_ID_2)
+                .movie(testMovie2)
+                .dateReturned(LocalDate.now().minusDays(1))
+                .createdDate(TEST_CREATED_DATE)
+                .modifiedDate(TEST_MODIFIED_DATE)
+                .build();
+
+        // Setup test rental header
+        testRentalHeader = RentalHeader.builder()
+                .rentalId(TEST_RENTAL_ID)
+                .customer(testCustomer)
+                .dateRented(TEST_DATE_RENTED)
+                .createdDate(TEST_CREATED_DATE)
+                .modifiedDate(TEST_MODIFIED_DATE)
+                .rentalDetails(new ArrayList<>(Arrays.asList(testRentalDetail1, testRentalDetail2)))
+                .build();
+
+        // Set back references
+        testRentalDetail1.setRentalHeader(testRentalHeader);
+        testRentalDetail2.setRentalHeader(testRentalHeader);
+    }
+
+    // Flat rows of testRentalHeader as the projection query returns them
+    private List<RentalRow> testRentalRows() {
+        return List.of(
+                rentalRow(testRentalDetail1),
+                rentalRow(testRentalDetail2));
+    }
+
+    private RentalRow rentalRow(RentalDetail rentalDetail) {
+        RentalRow row = mock(RentalRow.class);
+        lenient().when(row.getRentalId()).thenReturn(TEST_RENTAL_ID);
+        lenient().when(row.getCustomerName()).thenReturn("JOHN DOE");
+        lenient().when(row.getDateRented()).thenReturn(TEST_DATE_RENTED);
+        lenient().when(row.getRentalDetailId()).thenReturn(rentalDetail.getRentalDetailId());
+        lenient().when(row.getMovieId()).thenReturn(rentalDetail.getMovie().getMovieId());
+        lenient().when(row.getDateReturned()).thenReturn(rentalDetail.getDateReturned());
+        lenient().when(row.getLastModified()).thenReturn(TEST_MODIFIED_DATE);
+        return row;
+    }
+
+    @Nested
+    @DisplayName("Get All Rentals Tests")
+    class GetAllRentalsTests {
+
+        @Test
+        @DisplayName("Should return paginated list of rentals")
+        void shouldReturnPaginatedRentals() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10, Sort.by("dateRented").descending());
+            Page<Long> rentalIdPage = new PageImpl<>(Collections.singletonList(TEST_RENTAL_ID), pageable, 1);
+            
+            given(rentalHeaderRepository.findRentalIds(pageable)).willReturn(rentalIdPage);
+            given(rentalHeaderRepository.findRentalRowsByIdIn(List.of(TEST_RENTAL_ID))).willReturn(testRentalRows());
+
+            // When
+            Page<RentalListDTO> result = rentalService.getAllRentals(pageable);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getContent()).hasSize(1);
+            
+            RentalListDTO rentalDTO = result.getContent().get(0);
+            assertThat(rentalDTO.getRentalId()).isEqualTo(TEST_RENTAL_ID);
+            assertThat(rentalDTO.getCustomerName()).isEqualTo("JOHN DOE");
+            assertThat(rentalDTO.getDateRented()).isEqualTo(TEST_DATE_RENTED);
+            assertThat(rentalDTO.getRentDetails()).hasSize(2);
+            
+            verify(rentalHeaderRepository).findRentalIds(pageable);
+            verify(rentalHeaderRepository, never()).findById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should return empty page when no rentals exist")
+        void shouldReturnEmptyPage() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            Page<Long> emptyPage = Page.empty();
+            
+            given(rentalHeaderRepository.findRentalIds(pageable)).willReturn(emptyPage);
+
+            // When
+            Page<RentalListDTO> result = rentalService.getAllRentals(pageable);
+
+            // Then
+            assertThat(result).isEmpty();
+            verify(rentalHeaderRepository).findRentalIds(pageable);
+            verify(rentalHeaderRepository, never()).findRentalRowsByIdIn(anyCollection());
+        }
+    }
+
+    @Nested
+    @DisplayName("Get Rentals After Cursor Tests")
+    class GetRentalsAfterTests {
+
+        @Test
+        @DisplayName("Should return first page with a continuation cursor")
+        void shouldReturnFirstPageWithCursor() {
+            // Given
+            given(rentalHeaderRepository.findFirstRentalIds(PageRequest.of(0, 2)))
+                    .willReturn(List.of(TEST_RENTAL_ID, 2L));
+            given(rentalHeaderRepository.findRentalRowsByIdIn(List.of(TEST_RENTAL_ID)))
+                    .willReturn(testRentalRows());
+
+            // When
+            CursorPageResponse<RentalListDTO> result = rentalService.getRentalsAfter(null, 1);
+
+            // Then
+            assertThat(result.getContent())
+                    .extracting(RentalListDTO::getRentalId)
+                    .containsExactly(TEST_RENTAL_ID);
+            assertThat(result.isHasNext()).isTrue();
+            assertThat(KeysetCursor.decode(result.getNextCursor()))
+                    .isEqualTo(new KeysetCursor(TEST_DATE_RENTED.toString(), TEST_RENTAL_ID));
+        }
+
+        @Test
+        @DisplayName("Should seek past the cursor without a next cursor on the last page")
+        void shouldSeekPastCursor() {
+            // Given
+            String cursor = new KeysetCursor(TEST_DATE_RENTED.minusDays(1).toString(), 7L).encode();
+
+            given(rentalHeaderRepository.findRentalIdsAfter(TEST_DATE_RENTED.minusDays(1), 7L, PageRequest.of(0, 11)))
+                    .willReturn(List.of(TEST_RENTAL_ID));
+            given(rentalHeaderRepository.findRentalRowsByIdIn(List.of(TEST_RENTAL_ID)))
+                    .willReturn(testRentalRows());
+
+            // When
+            CursorPageResponse<RentalListDTO> result = rentalService.getRentalsAfter(cursor, 10);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.isHasNext()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+            verify(rentalHeaderRepository, never()).findFirstRentalIds(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should return an empty last page past the final rental")
+        void shouldReturnEmptyLastPage() {
+            // Given
+            String cursor = new KeysetCursor(TEST_DATE_RENTED.toString(), TEST_RENTAL_ID).encode();
+
+            given(rentalHeaderRepository.findRentalIdsAfter(TEST_DATE_RENTED, TEST_RENTAL_ID, PageRequest.of(0, 11)))
+                    .willReturn(List.of());
+
+            // When
+            CursorPageResponse<RentalListDTO> result = rentalService.getRentalsAfter(cursor, 10);
+
+            // Then
+            assertThat(result.getContent()).isEmpty();
+            assertThat(result.isHasNext()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+            verify(rentalHeaderRepository, never()).findRentalRowsByIdIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should throw ValidationException for a malformed cursor")
+        void shouldThrowExceptionForMalformedCursor() {
+            // When & Then
+            assertThatThrownBy(() -> rentalService.getRentalsAfter("not-a-cursor", 10))
+                    .isInstanceOf(ValidationException.class);
+        }
+
+        @Test
+        @DisplayName("Should throw ValidationException when the cursor position is not a date")
+        void shouldThrowExceptionForCursorWithoutDate() {
+            // Given - a customer cursor handed to the rental listing
+            String cursor = new KeysetCursor("JOHN DOE", TEST_CUSTOMER_ID).encode();
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.getRentalsAfter(cursor, 10))
+                    .isInstanceOf(ValidationException.class)
+                    .hasMessageContaining("JOHN DOE");
+            verify(rentalHeaderRepository, never()).findRentalIdsAfter(any(), anyLong(), any(Pageable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Get Rental By ID Tests")
+    class GetRentalByIdTests {
+
+        @Test
+        @DisplayName("Should return rental when found")
+        void shouldReturnRentalWhenFound() {
+            // Given
+            given(rentalHeaderRepository.findRentalRowsByIdIn(List.of(TEST_RENTAL_ID)))
+                    .willReturn(testRentalRows());
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1, testMovie2));
+
+            // When
+            RentalListDTO result = rentalService.getRentalById(TEST_RENTAL_ID);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getRentalId()).isEqualTo(TEST_RENTAL_ID);
+            assertThat(result.getCustomerName()).isEqualTo("JOHN DOE");
+            assertThat(result.getRentDetails())
+                    .extracting(RentalItemDTO::getMovieName)
+                    .containsExactly("THE MATRIX", "INCEPTION");
+            
+            verify(rentalHeaderRepository).findRentalRowsByIdIn(List.of(TEST_RENTAL_ID));
+            verify(rentalHeaderRepository, never()).findByIdWithDetails(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should carry the timestamp of the rows it was built from")
+        void shouldCarryLastModifiedOfRows() {
+            // Given
+            given(rentalHeaderRepository.findRentalRowsByIdIn(List.of(TEST_RENTAL_ID)))
+                    .willReturn(testRentalRows());
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1, testMovie2));
+
+            // When
+            RentalListDTO result = rentalService.getRentalById(TEST_RENTAL_ID);
+
+            // Then
+            assertThat(result.getModifiedDate()).isEqualTo(TEST_MODIFIED_DATE);
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when rental not found")
+        void shouldThrowExceptionWhenRentalNotFound() {
+            // Given
+            given(rentalHeaderRepository.findRentalRowsByIdIn(List.of(TEST_RENTAL_ID)))
+                    .willReturn(List.of());
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.getRentalById(TEST_RENTAL_ID))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("Rental")
+                    .hasMessageContaining("id");
+            
+            verify(rentalHeaderRepository).findRentalRowsByIdIn(List.of(TEST_RENTAL_ID));
+        }
+    }
+
+    @Nested
+    @DisplayName("Create Rental Tests")
+    class CreateRentalTests {
+
+        @Test
+        @DisplayName("Should create rental successfully with multiple movies")
+        void shouldCreateRentalSuccessfully() {
+            // Given
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(TEST_CUSTOMER_ID);
+            requestDTO.setMovieIds(Arrays.asList(TEST_MOVIE_ID_1, TEST_MOVIE_ID_2));
+            requestDTO.setDateRented(LocalDate.now());
+            
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1, testMovie2));
+            given(movieRepository.getReferenceById(anyLong()))
+                    .willAnswer(invocation -> Movie.builder()
+                            .movieId(invocation.getArgument(0))
+                            .build());
+            given(movieRepository.decrementAvailable(anyLong(), anyInt()))
+                    .willReturn(1);
+            given(rentalHeaderRepository.save(any(RentalHeader.class)))
+                    .willAnswer(invocation -> {
+                        RentalHeader rental = invocation.getArgument(0);
+                        rental.setRentalId(TEST_RENTAL_ID);
+                        rental.getRentalDetails().forEach(detail -> 
+                            detail.setRentalDetailId(detail.getMovie().getMovieId()));
+                        return rental;
+                    });
+
+            // When
+            RentalListDTO result = rentalService.createRental(requestDTO);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getRentalId()).isEqualTo(TEST_RENTAL_ID);
+            assertThat(result.getCustomerName()).isEqualTo("JOHN DOE");
+            assertThat(result.getStatus()).isEqualTo("PROCESSING");
+            assertThat(result.getRentDetails()).hasSize(2);
+            
+            verify(customerRepository).findCustomersByIdIn(List.of(TEST_CUSTOMER_ID));
+            verify(movieRepository).findAllByIdWithGenre(anyCollection());
+            verify(movieRepository).decrementAvailable(TEST_MOVIE_ID_1, 1);
+            verify(movieRepository).decrementAvailable(TEST_MOVIE_ID_2, 1);
+            verify(movieRepository, never()).save(any(Movie.class));
+            verify(eventPublisher).publishEvent(MoviesChangedEvent.availability(List.of(TEST_MOVIE_ID_1)));
+            verify(eventPublisher).publishEvent(MoviesChangedEvent.availability(List.of(TEST_MOVIE_ID_2)));
+            verify(customerRentalSummaryRepository).recordRental(TEST_CUSTOMER_ID, 2, LocalDate.now());
+            verify(rentalHeaderRepository).save(any(RentalHeader.class));
+            verify(outboxWriter).rentalCreated(new RentalEvent(TEST_RENTAL_ID, TEST_CUSTOMER_ID, LocalDate.now(),
+                    List.of(new RentalEvent.Item(TEST_MOVIE_ID_1, TEST_MOVIE_ID_1),
+                            new RentalEvent.Item(TEST_MOVIE_ID_2, TEST_MOVIE_ID_2))));
+            assertThat(meterRegistry.counter("rentals.created").count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when customer not found")
+        void shouldThrowExceptionWhenCustomerNotFound() {
+            // Given
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(999L);
+            
+            given(customerRepository.findCustomersByIdIn(List.of(999L)))
+                    .willReturn(List.of());
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.createRental(requestDTO))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessage("Customer not found with ID: 999");
+            
+            verify(customerRepository).findCustomersByIdIn(List.of(999L));
+            verify(movieRepository, never()).findAllByIdWithGenre(anyCollection());
+            verify(rentalHeaderRepository, never()).save(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when movie not found")
+        void shouldThrowExceptionWhenMovieNotFound() {
+            // Given
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(TEST_CUSTOMER_ID);
+            requestDTO.setMovieIds(Arrays.asList(999L));
+            
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(Collections.emptyList());
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.createRental(requestDTO))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessage("Movie not found with ID: 999");
+            
+            verify(customerRepository).findCustomersByIdIn(List.of(TEST_CUSTOMER_ID));
+            verify(movieRepository).findAllByIdWithGenre(anyCollection());
+            verify(rentalHeaderRepository, never()).save(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should throw BusinessException when movie is out of stock")
+        void shouldThrowExceptionWhenMovieOutOfStock() {
+            // Given
+            Movie outOfStockMovie = Movie.builder()
+                    .movieId(3L)
+                    .movieName("OUT OF STOCK MOVIE")
+                    .numberAvailable(0)
+                    .build();
+            
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(TEST_CUSTOMER_ID);
+            requestDTO.setMovieIds(Arrays.asList(3L));
+            
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(outOfStockMovie));
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.createRental(requestDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("out of stock");
+            
+            verify(customerRepository).findCustomersByIdIn(List.of(TEST_CUSTOMER_ID));
+            verify(movieRepository).findAllByIdWithGenre(anyCollection());
+            verify(rentalHeaderRepository, never()).save(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should throw BusinessException when the last copy is taken concurrently")
+        void shouldThrowExceptionWhenStockReservationFails() {
+            // Given
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(TEST_CUSTOMER_ID);
+            requestDTO.setMovieIds(Arrays.asList(TEST_MOVIE_ID_1));
+
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1));
+            given(movieRepository.decrementAvailable(TEST_MOVIE_ID_1, 1))
+                    .willReturn(0);
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.createRental(requestDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("out of stock");
+
+            verify(rentalHeaderRepository, never()).save(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should reserve every copy of a repeated title in one update")
+        void shouldReserveRepeatedTitleInOneUpdate() {
+            // Given
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(TEST_CUSTOMER_ID);
+            requestDTO.setMovieIds(Arrays.asList(TEST_MOVIE_ID_1, TEST_MOVIE_ID_1));
+
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1));
+            given(movieRepository.decrementAvailable(TEST_MOVIE_ID_1, 2))
+                    .willReturn(0);
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.createRental(requestDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("Movie 'THE MATRIX' is out of stock");
+
+            verify(movieRepository).decrementAvailable(TEST_MOVIE_ID_1, 2);
+            verify(rentalHeaderRepository, never()).save(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should use current date when dateRented is null")
+        void shouldUseCurrentDateWhenDateRentedIsNull() {
+            // Given
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(TEST_CUSTOMER_ID);
+            requestDTO.setMovieIds(Arrays.asList(TEST_MOVIE_ID_1));
+            requestDTO.setDateRented(null);
+            
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1));
+            given(movieRepository.getReferenceById(TEST_MOVIE_ID_1))
+                    .willReturn(testMovie1);
+            given(movieRepository.decrementAvailable(anyLong(), anyInt()))
+                    .willReturn(1);
+            given(rentalHeaderRepository.save(any(RentalHeader.class)))
+                    .willAnswer(invocation -> {
+                        RentalHeader rental = invocation.getArgument(0);
+                        rental.setRentalId(TEST_RENTAL_ID);
+                        return rental;
+                    });
+
+            // When
+            RentalListDTO result = rentalService.createRental(requestDTO);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getDateRented()).isEqualTo(LocalDate.now());
+            
+            verify(customerRepository).findCustomersByIdIn(List.of(TEST_CUSTOMER_ID));
+            verify(movieRepository).findAllByIdWithGenre(anyCollection());
+            verify(rentalHeaderRepository).save(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should decrease movie availability when rented")
+        void shouldDecreaseMovieAvailabilityWhenRented() {
+            // Given
+            RentalRequestDTO requestDTO = new RentalRequestDTO();
+            requestDTO.setCustomerId(TEST_CUSTOMER_ID);
+            requestDTO.setMovieIds(Arrays.asList(TEST_MOVIE_ID_1));
+            
+            given(customerRepository.findCustomersByIdIn(List.of(TEST_CUSTOMER_ID)))
+                    .willReturn(List.of(testCustomerDTO));
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1));
+            given(movieRepository.getReferenceById(TEST_MOVIE_ID_1))
+                    .willReturn(testMovie1);
+            given(movieRepository.decrementAvailable(anyLong(), anyInt()))
+                    .willReturn(1);
+            given(rentalHeaderRepository.save(any(RentalHeader.class)))
+                    .willAnswer(invocation -> {
+                        RentalHeader rental = invocation.getArgument(0);
+                        rental.setRentalId(TEST_RENTAL_ID);
+                        return rental;
+                    });
+
+            // When
+            rentalService.createRental(requestDTO);
+
+            // Then
+            verify(movieRepository).decrementAvailable(TEST_MOVIE_ID_1, 1);
+            verify(movieRepository, never()).save(any(Movie.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Create Rentals Batch Tests")
+    class CreateRentalsBatchTests {
+
+        @BeforeEach
+        void setUpBatch() {
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1, testMovie2));
+            given(customerRepository.findCustomersByIdIn(anyCollection()))
+                    .willReturn(List.of(testCustomerDTO));
+            lenient().when(movieRepository.getReferenceById(anyLong()))
+                    .thenAnswer(invocation -> Movie.builder()
+                            .movieId(invocation.getArgument(0))
+                            .build());
+            lenient().when(rentalHeaderRepository.save(any(RentalHeader.class)))
+                    .thenAnswer(invocation -> {
+                        RentalHeader rental = invocation.getArgument(0);
+                        rental.setRentalId(TEST_RENTAL_ID);
+                        return rental;
+                    });
+        }
+
+        @Test
+        @DisplayName("Should create valid rentals and report failed ones per item")
+        void shouldReportResultPerItem() {
+            // Given
+            List<RentalRequestDTO> requests = List.of(
+                    new RentalRequestDTO(TEST_CUSTOMER_ID, List.of(TEST_MOVIE_ID_1)),
+                    new RentalRequestDTO(999L, List.of(TEST_MOVIE_ID_1)),
+                    new RentalRequestDTO(TEST_CUSTOMER_ID, List.of(TEST_MOVIE_ID_2)));
+
+            given(movieRepository.decrementAvailable(TEST_MOVIE_ID_1, 1))
+                    .willReturn(1);
+            given(movieRepository.decrementAvailable(TEST_MOVIE_ID_2, 1))
+                    .willReturn(0);
+
+            // When
+            RentalBatchResponseDTO result = rentalService.createRentals(requests);
+
+            // Then
+            assertThat(result.getTotal()).isEqualTo(3);
+            assertThat(result.getCreated()).isEqualTo(1);
+            assertThat(result.getFailed()).isEqualTo(2);
+            assertThat(result.getResults())
+                    .extracting("index", "status", "error")
+                    .containsExactly(
+                            tuple(0, "CREATED", null),
+                            tuple(1, "FAILED", "Customer not found with ID: 999"),
+                            tuple(2, "FAILED", "Movie 'INCEPTION' is out of stock"));
+            assertThat(result.getResults().get(0).getRental().getCustomerName()).isEqualTo("JOHN DOE");
+
+            // one transaction per chunk of two
+            verify(transactionManager, times(2)).commit(any());
+            assertThat(meterRegistry.counter("rentals.created").count()).isEqualTo(1.0);
+            assertThat(meterRegistry.counter("rentals.out.of.stock").count()).isEqualTo(1.0);
+            verify(rentalHeaderRepository, times(1)).save(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should give back reserved copies when another title of the rental is out of stock")
+        void shouldReleaseCopiesOfFailedItem() {
+            // Given
+            List<RentalRequestDTO> requests = List.of(
+                    new RentalRequestDTO(TEST_CUSTOMER_ID, List.of(TEST_MOVIE_ID_1, TEST_MOVIE_ID_2)));
+
+            given(movieRepository.decrementAvailable(TEST_MOVIE_ID_1, 1))
+                    .willReturn(1);
+            given(movieRepository.decrementAvailable(TEST_MOVIE_ID_2, 1))
+                    .willReturn(0);
+
+            // When
+            RentalBatchResponseDTO result = rentalService.createRentals(requests);
+
+            // Then
+            assertThat(result.getFailed()).isEqualTo(1);
+            verify(movieRepository).incrementAvailable(TEST_MOVIE_ID_1, 1);
+            verify(movieRepository, never()).incrementAvailable(eq(TEST_MOVIE_ID_2), anyInt());
+            verify(rentalHeaderRepository, never()).save(any(RentalHeader.class));
+            verify(eventPublisher, never()).publishEvent(MoviesChangedEvent.availability(List.of(TEST_MOVIE_ID_2)));
+        }
+
+        @Test
+        @DisplayName("Should retry every item on its own when a chunk fails to commit")
+        void shouldRetryItemsWhenChunkFails() {
+            // Given
+            List<RentalRequestDTO> requests = List.of(
+                    new RentalRequestDTO(TEST_CUSTOMER_ID, List.of(TEST_MOVIE_ID_1)),
+                    new RentalRequestDTO(TEST_CUSTOMER_ID, List.of(TEST_MOVIE_ID_1)));
+
+            given(movieRepository.decrementAvailable(TEST_MOVIE_ID_1, 1))
+                    .willReturn(1);
+            willThrow(new TransactionSystemException("Could not commit"))
+                    .willDoNothing()
+                    .given(transactionManager).commit(any());
+
+            // When
+            RentalBatchResponseDTO result = rentalService.createRentals(requests);
+
+            // Then
+            assertThat(result.getCreated()).isEqualTo(2);
+            assertThat(result.getResults())
+                    .extracting("index")
+                    .containsExactly(0, 1);
+            verify(transactionManager, times(3)).commit(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Return Rental Tests")
+    class ReturnRentalTests {
+
+        @Test
+        @DisplayName("Should return rental successfully")
+        void shouldReturnRentalSuccessfully() {
+            // Given
+            given(rentalHeaderRepository.findByIdWithDetails(TEST_RENTAL_ID))
+                    .willReturn(Optional.of(testRentalHeader));
+            given(rentalHeaderRepository.saveAndFlush(testRentalHeader))
+                    .willReturn(testRentalHeader);
+            given(movieRepository.incrementAvailable(TEST_MOVIE_ID_1, 1))
+                    .willReturn(1);
+
+            // When
+            RentalListDTO result = rentalService.returnRental(TEST_RENTAL_ID, TEST_RENTAL_DETAIL_ID_1);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getRentalId()).isEqualTo(TEST_RENTAL_ID);
+            assertThat(result.getModifiedDate()).isEqualTo(testRentalHeader.getModifiedDate());
+            
+            // Verify rental detail was marked as returned
+            assertThat(testRentalDetail1.getDateReturned()).isEqualTo(LocalDate.now());
+            
+            // Verify movie availability increased
+            verify(movieRepository).incrementAvailable(TEST_MOVIE_ID_1, 1);
+            
+            verify(rentalHeaderRepository).findByIdWithDetails(TEST_RENTAL_ID);
+            verify(rentalHeaderRepository).saveAndFlush(testRentalHeader);
+            verify(customerRentalSummaryRepository).recordReturns(TEST_CUSTOMER_ID, 1);
+            verify(eventPublisher).publishEvent(MoviesChangedEvent.availability(List.of(TEST_MOVIE_ID_1)));
+            verify(outboxWriter).rentalReturned(new RentalEvent(TEST_RENTAL_ID, TEST_CUSTOMER_ID, LocalDate.now(),
+                    List.of(new RentalEvent.Item(TEST_RENTAL_DETAIL_ID_1, TEST_MOVIE_ID_1))));
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when rental not found")
+        void shouldThrowExceptionWhenRentalNotFoundForReturn() {
+            // Given
+            given(rentalHeaderRepository.findByIdWithDetails(TEST_RENTAL_ID))
+                    .willReturn(Optional.empty());
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.returnRental(TEST_RENTAL_ID, TEST_RENTAL_DETAIL_ID_1))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("Rental")
+                    .hasMessageContaining("id");
+            
+            verify(rentalHeaderRepository).findByIdWithDetails(TEST_RENTAL_ID);
+            verify(rentalHeaderRepository, never()).saveAndFlush(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when rental detail not found")
+        void shouldThrowExceptionWhenRentalDetailNotFound() {
+            // Given
+            given(rentalHeaderRepository.findByIdWithDetails(TEST_RENTAL_ID))
+                    .willReturn(Optional.of(testRentalHeader));
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.returnRental(TEST_RENTAL_ID, 999L))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("RentalDetail")
+                    .hasMessageContaining("id");
+            
+            verify(rentalHeaderRepository).findByIdWithDetails(TEST_RENTAL_ID);
+            verify(rentalHeaderRepository, never()).saveAndFlush(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should throw BusinessException when rental already returned")
+        void shouldThrowExceptionWhenRentalAlreadyReturned() {
+            // Given
+            given(rentalHeaderRepository.findByIdWithDetails(TEST_RENTAL_ID))
+                    .willReturn(Optional.of(testRentalHeader));
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.returnRental(TEST_RENTAL_ID, TEST_RENTAL_DETAIL_ID_2))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("already been returned");
+            
+            verify(rentalHeaderRepository).findByIdWithDetails(TEST_RENTAL_ID);
+            verify(rentalHeaderRepository, never()).saveAndFlush(any(RentalHeader.class));
+        }
+
+        @Test
+        @DisplayName("Should update modified date when returning rental")
+        void shouldUpdateModifiedDateWhenReturningRental() {
+            // Given
+            given(rentalHeaderRepository.findByIdWithDetails(TEST_RENTAL_ID))
+                    .willReturn(Optional.of(testRentalHeader));
+            given(rentalHeaderRepository.saveAndFlush(any(RentalHeader.class)))
+                    .willAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            RentalListDTO result = rentalService.returnRental(TEST_RENTAL_ID, TEST_RENTAL_DETAIL_ID_1);
+
+            // Then
+            assertThat(testRentalHeader.getModifiedDate()).isNotNull();
+            verify(rentalHeaderRepository).saveAndFlush(argThat(rental -> 
+                rental.getModifiedDate() != null));
+            assertThat(result.getModifiedDate()).isEqualTo(testRentalHeader.getModifiedDate());
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Return Tests")
+    class ReturnRentalsTests {
+
+        private OutstandingRentalDetail outstanding(Long rentalDetailId, Long rentalId, Long movieId) {
+            OutstandingRentalDetail detail = mock(OutstandingRentalDetail.class);
+            lenient().when(detail.getRentalDetailId()).thenReturn(rentalDetailId);
+            lenient().when(detail.getRentalId()).thenReturn(rentalId);
+            lenient().when(detail.getMovieId()).thenReturn(movieId);
+            return detail;
+        }
+
+        @Test
+        @DisplayName("Should close the oldest outstanding copies with set-based updates")
+        void shouldReturnOldestCopiesInBulk() {
+            // Given
+            RentalReturnDTO returnDTO = new RentalReturnDTO(TEST_CUSTOMER_ID,
+                    List.of(TEST_MOVIE_ID_1, TEST_MOVIE_ID_2), null);
+            List<OutstandingRentalDetail> rows = List.of(
+                    outstanding(10L, 5L, TEST_MOVIE_ID_1),
+                    outstanding(11L, 5L, TEST_MOVIE_ID_2),
+                    outstanding(20L, 6L, TEST_MOVIE_ID_1));
+
+            given(customerRepository.existsById(TEST_CUSTOMER_ID))
+                    .willReturn(true);
+            given(rentalDetailRepository.findOutstanding(eq(TEST_CUSTOMER_ID), anyCollection(), isNull()))
+                    .willReturn(rows);
+            given(rentalDetailRepository.markReturned(anyCollection(), any(LocalDate.class)))
+                    .willReturn(2);
+            given(movieRepository.incrementAvailableForRentalDetails(List.of(10L, 11L)))
+                    .willReturn(2);
+
+            // When
+            RentalReturnResultDTO result = rentalService.returnRentals(returnDTO);
+
+            // Then
+            assertThat(result.getReturned()).isEqualTo(2);
+            assertThat(result.getRentalDetailIds()).containsExactly(10L, 11L);
+            assertThat(result.getRentalIds()).containsExactly(5L);
+            assertThat(result.getDateReturned()).isEqualTo(LocalDate.now());
+
+            verify(rentalDetailRepository).markReturned(List.of(10L, 11L), LocalDate.now());
+            verify(rentalHeaderRepository).touchModifiedDate(eq(Set.of(5L)), any(LocalDateTime.class));
+            verify(movieRepository).incrementAvailableForRentalDetails(List.of(10L, 11L));
+            verify(eventPublisher).publishEvent(MoviesChangedEvent.availability(List.of(TEST_MOVIE_ID_1, TEST_MOVIE_ID_2)));
+            verify(customerRentalSummaryRepository).recordReturns(TEST_CUSTOMER_ID, 2);
+            verify(outboxWriter).rentalReturned(new RentalEvent(5L, TEST_CUSTOMER_ID, LocalDate.now(),
+                    List.of(new RentalEvent.Item(10L, TEST_MOVIE_ID_1), new RentalEvent.Item(11L, TEST_MOVIE_ID_2))));
+            verify(rentalHeaderRepository, never()).findByIdWithDetails(anyLong());
+            assertThat(meterRegistry.counter("rentals.returned").count()).isEqualTo(2.0);
+        }
+
+        @Test
+        @DisplayName("Should throw BusinessException when a returned title is not outstanding")
+        void shouldThrowExceptionWhenTitleNotOutstanding() {
+            // Given
+            RentalReturnDTO returnDTO = new RentalReturnDTO(TEST_CUSTOMER_ID,
+                    List.of(TEST_MOVIE_ID_1, TEST_MOVIE_ID_1), null);
+            List<OutstandingRentalDetail> rows = List.of(outstanding(10L, 5L, TEST_MOVIE_ID_1));
+
+            given(customerRepository.existsById(TEST_CUSTOMER_ID))
+                    .willReturn(true);
+            given(rentalDetailRepository.findOutstanding(eq(TEST_CUSTOMER_ID), anyCollection(), isNull()))
+                    .willReturn(rows);
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.returnRentals(returnDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("No outstanding rental for movie IDs: " + TEST_MOVIE_ID_1);
+
+            verify(rentalDetailRepository, never()).markReturned(anyCollection(), any(LocalDate.class));
+            verify(movieRepository, never()).incrementAvailableForRentalDetails(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should throw BusinessException when copies were returned concurrently")
+        void shouldThrowExceptionWhenReturnedConcurrently() {
+            // Given
+            RentalReturnDTO returnDTO = new RentalReturnDTO(TEST_CUSTOMER_ID, List.of(TEST_MOVIE_ID_1), null);
+            List<OutstandingRentalDetail> rows = List.of(outstanding(10L, 5L, TEST_MOVIE_ID_1));
+
+            given(customerRepository.existsById(TEST_CUSTOMER_ID))
+                    .willReturn(true);
+            given(rentalDetailRepository.findOutstanding(eq(TEST_CUSTOMER_ID), anyCollection(), isNull()))
+                    .willReturn(rows);
+            given(rentalDetailRepository.markReturned(anyCollection(), any(LocalDate.class)))
+                    .willReturn(0);
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.returnRentals(returnDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("returned in the meantime");
+
+            verify(movieRepository, never()).incrementAvailableForRentalDetails(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should throw BusinessException when a title would go above its stock")
+        void shouldThrowExceptionWhenStockWouldOverflow() {
+            // Given
+            RentalReturnDTO returnDTO = new RentalReturnDTO(TEST_CUSTOMER_ID,
+                    List.of(TEST_MOVIE_ID_1, TEST_MOVIE_ID_2), null);
+            List<OutstandingRentalDetail> rows = List.of(
+                    outstanding(10L, 5L, TEST_MOVIE_ID_1),
+                    outstanding(11L, 5L, TEST_MOVIE_ID_2));
+
+            given(customerRepository.existsById(TEST_CUSTOMER_ID))
+                    .willReturn(true);
+            given(rentalDetailRepository.findOutstanding(eq(TEST_CUSTOMER_ID), anyCollection(), isNull()))
+                    .willReturn(rows);
+            given(rentalDetailRepository.markReturned(anyCollection(), any(LocalDate.class)))
+                    .willReturn(2);
+            given(movieRepository.incrementAvailableForRentalDetails(List.of(10L, 11L)))
+                    .willReturn(1);
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.returnRentals(returnDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("exceed the stock");
+
+            verify(eventPublisher, never()).publishEvent(any());
+            verify(customerRentalSummaryRepository, never()).recordReturns(anyLong(), anyInt());
+            verify(outboxWriter, never()).rentalReturned(any(RentalEvent.class));
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when customer not found")
+        void shouldThrowExceptionWhenCustomerNotFound() {
+            // Given
+            RentalReturnDTO returnDTO = new RentalReturnDTO(999L, List.of(TEST_MOVIE_ID_1), null);
+
+            given(customerRepository.existsById(999L))
+                    .willReturn(false);
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.returnRentals(returnDTO))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessage("Customer not found with ID: 999");
+
+            verify(rentalDetailRepository, never()).findOutstanding(anyLong(), anyCollection(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Helper Methods Tests")
+    class HelperMethodsTests {
+
+        @Test
+        @DisplayName("Should convert RentalHeader to RentalListDTO correctly")
+        void shouldConvertRentalHeaderToDtoCorrectly() {
+            // When
+            RentalListDTO result = rentalService.convertToRentalListDTO(testRentalHeader);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getRentalId()).isEqualTo(testRentalHeader.getRentalId());
+            assertThat(result.getCustomerName()).isEqualTo("JOHN DOE");
+            assertThat(result.getDateRented()).isEqualTo(testRentalHeader.getDateRented());
+            assertThat(result.getRentDetails()).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("Should convert RentalDetail to RentalItemDTO correctly")
+        void shouldConvertRentalDetailToDtoCorrectly() {
+            // Given
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1));
+
+            // When
+            RentalItemDTO result = rentalService.convertToRentalItemDTO(testRentalDetail1);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getRentalDetailId()).isEqualTo(TEST_RENTAL_DETAIL_ID_1);
+            assertThat(result.getMovieName()).isEqualTo("THE MATRIX");
+            assertThat(result.getGenre()).isEqualTo("ACTION");
+            assertThat(result.getDateReturned()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should handle null customer in conversion")
+        void shouldHandleNullCustomerInConversion() {
+            // Given
+            RentalHeader rentalWithoutCustomer = RentalHeader.builder()
+                    .rentalId(TEST_RENTAL_ID)
+                    .customer(null)
+                    .dateRented(TEST_DATE_RENTED)
+                    .rentalDetails(new ArrayList<>())
+                    .build();
+
+            // When
+            RentalListDTO result = rentalService.convertToRentalListDTO(rentalWithoutCustomer);
+
+            // Then
+            assertThat(result.getCustomerName()).isEqualTo("Unknown");
+        }
+
+        @Test
+        @DisplayName("Should handle null movie in conversion")
+        void shouldHandleNullMovieInConversion() {
+            // Given
+            RentalDetail rentalDetailWithoutMovie = RentalDetail.builder()
+                    .rentalDetailId(TEST_RENTAL_DETAIL_ID_1)
+                    .movie(null)
+                    .build();
+
+            // When
+            RentalItemDTO result = rentalService.convertToRentalItemDTO(rentalDetailWithoutMovie);
+
+            // Then
+            assertThat(result.getMovieName()).isEqualTo("Unknown");
+            assertThat(result.getGenre()).isEqualTo("Unknown");
+        }
+    }
+
+    @Nested
+    @DisplayName("Validation Tests")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("Should validate and fetch movies successfully")
+        void shouldValidateAndFetchMoviesSuccessfully() {
+            // Given
+            List<Long> movieIds = Arrays.asList(TEST_MOVIE_ID_1, TEST_MOVIE_ID_2);
+            
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie2, testMovie1));
+
+            // When
+            List<MovieCatalogueEntry> result = rentalService.validateAndFetchMovies(movieIds);
+
+            // Then
+            assertThat(result).hasSize(2);
+            assertThat(result.get(0).getMovieId()).isEqualTo(TEST_MOVIE_ID_1);
+            assertThat(result.get(1).getMovieId()).isEqualTo(TEST_MOVIE_ID_2);
+            
+            verify(movieRepository).findAllByIdWithGenre(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should report every missing movie in a single exception")
+        void shouldReportAllMissingMovies() {
+            // Given
+            List<Long> movieIds = Arrays.asList(TEST_MOVIE_ID_1, 998L, 999L);
+
+            given(movieRepository.findAllByIdWithGenre(anyCollection()))
+                    .willReturn(List.of(testMovie1));
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.validateAndFetchMovies(movieIds))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessage("Movies not found with IDs: 998, 999");
+        }
+
+        @Test
+        @DisplayName("Should create rental header with current date when dateRented is null")
+        void shouldCreateRentalHeaderWithCurrentDate() {
+            // When
+            RentalHeader result = rentalService.createRentalHeader(testCustomer, null);
+
+            // Then
+            assertThat(result).isNotNull();
+            assertThat(result.getCustomer()).isEqualTo(testCustomer);
+            assertThat(result.getDateRented()).isEqualTo(LocalDate.now());
+            assertThat(result.getCreatedDate()).isNotNull();
+            assertThat(result.getModifiedDate()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should create rental header with provided date")
+        void shouldCreateRentalHeaderWithProvidedDate() {
+            // Given
+            LocalDate specificDate = LocalDate.of(2024, 1, 15);
+
+            // When
+            RentalHeader result = rentalService.createRentalHeader(testCustomer, specificDate);
+
+            // Then
+            assertThat(result.getDateRented()).isEqualTo(specificDate);
+        }
+    }
+}
\ No newline at end of file